@@ -1,5 +1,7 @@
 package org.contour2dplot;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Created by Piotr Dzwiniel on 2016-03-21.
  */
@@ -24,9 +26,7 @@ package org.contour2dplot;
  * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
  */
 
-public class BicubicInterpolator extends CubicInterpolator {
-
-    private double[] arr = new double[4];
+public class BicubicInterpolator extends CubicInterpolator implements Interpolator {
 
     public double getValue(double[][] p, double x, double y) {
 
@@ -34,11 +34,117 @@ public class BicubicInterpolator extends CubicInterpolator {
 
         x -= xi;
 
-        arr[0] = getValue(p[Math.max(0, xi - 1)], y);
-        arr[1] = getValue(p[xi], y);
-        arr[2] = getValue(p[Math.min(p.length - 1, xi + 1)], y);
-        arr[3] = getValue(p[Math.min(p.length - 1, xi + 2)], y);
+        double p0 = getValue(p[Math.max(0, xi - 1)], y);
+        double p1 = getValue(p[xi], y);
+        double p2 = getValue(p[Math.min(p.length - 1, xi + 1)], y);
+        double p3 = getValue(p[Math.min(p.length - 1, xi + 2)], y);
+
+        return getValue(p0, p1, p2, p3, x);
+    }
+
+    /**
+     * Reads the stencil straight from grids with a halo of at least two values, which repeats the edge values, and clamps its
+     * indices to the grid otherwise.
+     */
+    @Override
+    public double getValue(Grid2D p, double x, double y) {
+
+        int xi = (int) x;
+
+        x -= xi;
+
+        if (p.getHalo() >= 2) {
+            return getValue(getValueOfRow(p, xi - 1, y), getValueOfRow(p, xi, y), getValueOfRow(p, xi + 1, y),
+                    getValueOfRow(p, xi + 2, y), x);
+        }
+
+        double p0 = getValueOfRow(p, Math.max(0, xi - 1), y);
+        double p1 = getValueOfRow(p, xi, y);
+        double p2 = getValueOfRow(p, Math.min(p.getHeight() - 1, xi + 1), y);
+        double p3 = getValueOfRow(p, Math.min(p.getHeight() - 1, xi + 2), y);
+
+        return getValue(p0, p1, p2, p3, x);
+    }
+
+    /**
+     * Bounds values of the cell by its Bezier control points. The Catmull-Rom segment between p1 and p2 is the cubic Bezier
+     * curve with control points p1, p1 + (p2 - p0) / 6, p2 - (p3 - p1) / 6 and p2, so the bicubic patch of the cell is the
+     * Bezier patch whose sixteen control points follow from its stencil, with edge values repeated past the edges of the data,
+     * by converting its rows and then its columns. The patch lies within the range of its control points.
+     */
+    @Override
+    public void getCellRange(Grid2D data, int row, int column, double[] range) {
+
+        double[] controlPoints = new double[16];
+
+        boolean halo = data.getHalo() >= 2;
+
+        for (int i = 0; i < 4; i++) {
+            int stencilRow = halo ? row - 1 + i : Math.max(0, Math.min(data.getHeight() - 1, row - 1 + i));
+            double p0 = data.get(stencilRow, halo ? column - 1 : Math.max(0, column - 1));
+            double p1 = data.get(stencilRow, column);
+            double p2 = data.get(stencilRow, column + 1);
+            double p3 = data.get(stencilRow, halo ? column + 2 : Math.min(data.getWidth() - 1, column + 2));
+            toBezier(p0, p1, p2, p3, controlPoints, 4 * i, 1);
+        }
+
+        for (int j = 0; j < 4; j++) {
+            toBezier(controlPoints[j], controlPoints[4 + j], controlPoints[8 + j], controlPoints[12 + j], controlPoints, j, 4);
+        }
+
+        double min = controlPoints[0];
+        double max = controlPoints[0];
+        for (double controlPoint : controlPoints) {
+            min = Math.min(min, controlPoint);
+            max = Math.max(max, controlPoint);
+        }
+
+        range[0] = min;
+        range[1] = max;
+    }
+
+    /**
+     * Cubic polynomials overshoot next to steep changes of the data.
+     */
+    @Override
+    public boolean overshoots() {
+        return true;
+    }
+
+    /**
+     * Upsamples the data with the separable two-pass {@link BicubicUpsampler}.
+     */
+    @Override
+    public void upsample(Grid2D data, int interpolationFactorX, int interpolationFactorY, Grid2D upsampledData,
+            RefinementMask refinementMask, ForkJoinPool forkJoinPool) {
+        BicubicUpsampler.upsample(data, interpolationFactorX, interpolationFactorY, upsampledData, refinementMask,
+                forkJoinPool);
+    }
+
+    private static void toBezier(double p0, double p1, double p2, double p3, double[] controlPoints, int offset, int step) {
+        controlPoints[offset] = p1;
+        controlPoints[offset + step] = p1 + (p2 - p0) / 6.0;
+        controlPoints[offset + 2 * step] = p2 - (p3 - p1) / 6.0;
+        controlPoints[offset + 3 * step] = p2;
+    }
+
+    private static double getValueOfRow(Grid2D p, int row, double y) {
+
+        int yi = (int) y;
+
+        y -= yi;
+
+        if (p.getHalo() >= 2) {
+            return getValue(p.get(row, yi - 1), p.get(row, yi), p.get(row, yi + 1), p.get(row, yi + 2), y);
+        }
+
+        int lastColumn = p.getWidth() - 1;
+
+        double p0 = p.get(row, Math.max(0, yi - 1));
+        double p1 = p.get(row, yi);
+        double p2 = p.get(row, Math.min(lastColumn, yi + 1));
+        double p3 = p.get(row, Math.min(lastColumn, yi + 2));
 
-        return getValue(arr, x + 1);
+        return getValue(p0, p1, p2, p3, y);
     }
 }
@@ -0,0 +1,204 @@
+package org.contour2dplot;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Upsamples a grid with bicubic interpolation in two separable passes. {@link BicubicInterpolator#getValue(Grid2D, double,
+ * double)} interpolates four data rows for every sample, so every data row is interpolated again for each of the output rows it
+ * contributes to. Here every data row is interpolated along its columns only once per strip of output rows, into a window of
+ * the four intermediate rows with one column per output column read by the current output row, and output rows are then
+ * interpolated across the rows of that window. Memory taken by the upsampling is thus a few rows per strip, whatever the size of
+ * the data.
+ * <p>
+ * Samples are taken at every 1 / interpolationFactorX of the data columns and 1 / interpolationFactorY of its rows, so their
+ * fractions repeat with the period of the interpolation factor of the axis. Catmull-Rom weights of the four neighbouring values
+ * are computed once for each of these phases and every sample is a 4-tap dot product. Samples of a phase are computed along the
+ * whole row at once by {@link RowKernels#weightedSum}, in both passes. Results are equal to sampling with
+ * {@link BicubicInterpolator} at row / interpolationFactorY and column / interpolationFactorX up to rounding errors.
+ * <p>
+ * With a {@link RefinementMask}, only runs of samples touching refined cells are interpolated across the rows. The rest of
+ * the row is copied from the nearest intermediate row at the columns of the data values, which hold the data values exactly.
+ */
+public final class BicubicUpsampler {
+
+	// Stencil of the interpolation reaches one value before and two values after the interpolated interval.
+	private static final int HALO = 2;
+
+	// Number of intermediate rows read by an output row.
+	private static final int WINDOW_ROWS = 4;
+
+	private BicubicUpsampler() {
+	}
+
+	/**
+	 * Fills the caller-owned grid with samples of the data taken at every 1 / interpolationFactorX of its columns and
+	 * 1 / interpolationFactorY of its rows, interpolating only samples touching cells marked in the refinement mask unless it is
+	 * null. Rows are split into strips computed on the given pool, or serially if the pool is null. Every strip keeps its own
+	 * window of intermediate rows, so any number of grids can be upsampled at the same time.
+	 * <p>
+	 * Stencils read rows of data of the "Double" storage with a halo of two values straight from the grid, and never have to
+	 * clamp indices. Rows of any other data, including grids mapped from files, are read one at a time into a buffer extended by
+	 * the edge values, so the data is never copied as a whole.
+	 */
+	public static void upsample(Grid2D data, int interpolationFactorX, int interpolationFactorY, Grid2D upsampledData,
+			RefinementMask refinementMask, ForkJoinPool forkJoinPool) {
+
+		boolean directData = data.getStorage().equals("Double") && data.getHalo() >= HALO;
+		int dataColumns = data.getWidth();
+		int lastDataRow = data.getHeight() - 1;
+
+		int rows = upsampledData.getHeight();
+		int columns = upsampledData.getWidth();
+		boolean doubleUpsampledData = upsampledData.getStorage().equals("Double");
+
+		double[] columnWeights = getWeights(interpolationFactorX);
+		double[] rowWeights = getWeights(interpolationFactorY);
+
+		RowStrips.forEach(forkJoinPool, rows, (strip, fromRow, toRow) -> {
+
+			// Intermediate row of the data row r is row r + 1, so rows of the halo are interpolated as well. It is kept in the
+			// window at (r + 1) % WINDOW_ROWS until a later output row needs that place.
+			double[] windowValues = new double[Math.multiplyExact(WINDOW_ROWS, columns)];
+			int[] windowRows = new int[WINDOW_ROWS];
+			Arrays.fill(windowRows, -1);
+
+			// Other rows are read as doubles into a buffer and extended by the halo there.
+			double[] dataValues = directData ? data.getValues() : new double[Math.addExact(dataColumns, 2 * HALO)];
+			double[] phaseValues = (interpolationFactorX > 1)
+					? new double[(columns + interpolationFactorX - 1) / interpolationFactorX] : null;
+
+			// Rows of reduced storages are computed as doubles into a buffer and converted when written.
+			double[] upsampledValues = doubleUpsampledData ? upsampledData.getValues() : new double[columns];
+			boolean[] refinedSamples = (refinementMask != null) ? new boolean[columns] : null;
+
+			for (int row = fromRow; row < toRow; row++) {
+
+				int xi = row / interpolationFactorY;
+
+				for (int intermediateRow = xi; intermediateRow < xi + WINDOW_ROWS; intermediateRow++) {
+
+					int place = intermediateRow % WINDOW_ROWS;
+					if (windowRows[place] == intermediateRow) {
+						continue;
+					}
+
+					int dataOffset;
+					if (directData) {
+						dataOffset = data.getIndex(intermediateRow - 1, 0);
+					} else {
+						data.readRow(Math.max(0, Math.min(lastDataRow, intermediateRow - 1)), 0, dataColumns, dataValues, HALO);
+						for (int i = 1; i <= HALO; i++) {
+							dataValues[HALO - i] = dataValues[HALO];
+							dataValues[HALO + dataColumns - 1 + i] = dataValues[HALO + dataColumns - 1];
+						}
+						dataOffset = HALO;
+					}
+
+					interpolateRow(dataValues, dataOffset, columnWeights, interpolationFactorX, phaseValues, windowValues,
+							place * columns, columns);
+					windowRows[place] = intermediateRow;
+				}
+
+				int weight = 4 * (row % interpolationFactorY);
+				int offset0 = (xi % WINDOW_ROWS) * columns;
+				int offset1 = ((xi + 1) % WINDOW_ROWS) * columns;
+				int offset2 = ((xi + 2) % WINDOW_ROWS) * columns;
+				int offset3 = ((xi + 3) % WINDOW_ROWS) * columns;
+				int upsampledOffset = doubleUpsampledData ? upsampledData.getIndex(row, 0) : 0;
+
+				if (refinementMask == null) {
+					RowKernels.weightedSum(windowValues, offset0, rowWeights[weight], offset1, rowWeights[weight + 1], offset2,
+							rowWeights[weight + 2], offset3, rowWeights[weight + 3], upsampledValues, upsampledOffset, columns);
+				} else {
+					refinementMask.getRefinedSamples(row, interpolationFactorX, interpolationFactorY, refinedSamples);
+
+					int nearest = ((Interpolator.getNearest(row, interpolationFactorY) + 1) % WINDOW_ROWS) * columns;
+
+					for (int from = 0, to; from < columns; from = to) {
+						to = from + 1;
+						while (to < columns && refinedSamples[to] == refinedSamples[from]) {
+							to++;
+						}
+						if (refinedSamples[from]) {
+							RowKernels.weightedSum(windowValues, offset0 + from, rowWeights[weight], offset1 + from,
+									rowWeights[weight + 1], offset2 + from, rowWeights[weight + 2], offset3 + from,
+									rowWeights[weight + 3], upsampledValues, upsampledOffset + from, to - from);
+						} else {
+							for (int column = from; column < to; column++) {
+								upsampledValues[upsampledOffset + column] = windowValues[nearest
+										+ Interpolator.getNearest(column, interpolationFactorX) * interpolationFactorX];
+							}
+						}
+					}
+				}
+
+				if (!doubleUpsampledData) {
+					upsampledData.writeRow(row, upsampledValues, 0);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Interpolates the row of data values starting at the given offset along its columns into the given number of values of
+	 * the result. Samples of every phase are computed along the row at once into the buffer, since their weights are the same,
+	 * and then placed at every interpolationFactor-th column of the result.
+	 */
+	private static void interpolateRow(double[] dataValues, int dataOffset, double[] columnWeights, int interpolationFactor,
+			double[] phaseValues, double[] result, int resultOffset, int columns) {
+
+		// Without interpolation along the columns there is a single phase, computed straight into the result.
+		double[] phaseResult = (interpolationFactor == 1) ? result : phaseValues;
+		int phaseOffset = (interpolationFactor == 1) ? resultOffset : 0;
+
+		for (int phase = 0; phase < interpolationFactor && phase < columns; phase++) {
+
+			int weight = 4 * phase;
+			int samples = (columns - phase + interpolationFactor - 1) / interpolationFactor;
+
+			RowKernels.weightedSum(dataValues, dataOffset - 1, columnWeights[weight], dataOffset, columnWeights[weight + 1],
+					dataOffset + 1, columnWeights[weight + 2], dataOffset + 2, columnWeights[weight + 3], phaseResult,
+					phaseOffset, samples);
+
+			if (interpolationFactor > 1) {
+				for (int xi = 0, column = resultOffset + phase; xi < samples; xi++, column += interpolationFactor) {
+					result[column] = phaseValues[xi];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns Catmull-Rom weights of the four neighbouring values for every phase of the interpolation factor, stored as
+	 * consecutive quadruples.
+	 */
+	private static double[] getWeights(int interpolationFactor) {
+		double[] weights = new double[4 * interpolationFactor];
+		for (int phase = 0; phase < interpolationFactor; phase++) {
+			double x = phase / (double) interpolationFactor;
+			double xx = x * x;
+			double xxx = xx * x;
+			weights[4 * phase] = 0.5 * (-x + 2.0 * xx - xxx);
+			weights[4 * phase + 1] = 0.5 * (2.0 - 5.0 * xx + 3.0 * xxx);
+			weights[4 * phase + 2] = 0.5 * (x + 4.0 * xx - 3.0 * xxx);
+			weights[4 * phase + 3] = 0.5 * (-xx + xxx);
+		}
+		return weights;
+	}
+}
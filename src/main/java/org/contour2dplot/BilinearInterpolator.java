@@ -0,0 +1,141 @@
+package org.contour2dplot;
+
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Interpolates linearly between the two nearest rows and columns. Every sample is a weighted average of four data values, so it
+ * never leaves the range of the data and needs no clamping.
+ * <p>
+ * Upsampling is separable, like in {@link BicubicUpsampler}: data rows are interpolated along their columns once per strip of
+ * output rows, into a window of the two rows read by the current output row, and output rows are interpolated between these
+ * rows, with weights of every phase of the interpolation factor computed once. Samples outside of refined cells are copied from
+ * the data rows instead. Data is thus read one row at a time and never copied as a whole, which suits grids mapped from files.
+ */
+public class BilinearInterpolator implements Interpolator {
+
+	@Override
+	public double getValue(Grid2D data, double x, double y) {
+
+		int xi = Math.min((int) x, data.getHeight() - 1);
+		int yi = Math.min((int) y, data.getWidth() - 1);
+		int nextRow = Math.min(xi + 1, data.getHeight() - 1);
+		int nextColumn = Math.min(yi + 1, data.getWidth() - 1);
+
+		x -= xi;
+		y -= yi;
+
+		double upper = data.get(xi, yi) + (data.get(xi, nextColumn) - data.get(xi, yi)) * y;
+		double lower = data.get(nextRow, yi) + (data.get(nextRow, nextColumn) - data.get(nextRow, yi)) * y;
+
+		return upper + (lower - upper) * x;
+	}
+
+	@Override
+	public void upsample(Grid2D data, int interpolationFactorX, int interpolationFactorY, Grid2D upsampledData,
+			RefinementMask refinementMask, ForkJoinPool forkJoinPool) {
+
+		int dataRows = data.getHeight();
+		int dataColumns = data.getWidth();
+
+		int rows = upsampledData.getHeight();
+		int columns = upsampledData.getWidth();
+
+		double[] columnFractions = getFractions(interpolationFactorX);
+		double[] rowFractions = getFractions(interpolationFactorY);
+
+		RowStrips.forEach(forkJoinPool, rows, (strip, fromRow, toRow) -> {
+
+			// Data row r is interpolated along its columns into the window at r % 2, where it is kept until a later output row
+			// needs the other data row of that place.
+			double[] windowValues = new double[Math.multiplyExact(2, columns)];
+			int[] windowRows = {-1, -1};
+
+			double[] dataRow = new double[Math.addExact(dataColumns, 1)];
+			double[] upsampledRow = new double[columns];
+			boolean[] refinedSamples = (refinementMask != null) ? new boolean[columns] : null;
+
+			for (int row = fromRow; row < toRow; row++) {
+
+				int upperRow = Math.min(row / interpolationFactorY, dataRows - 1);
+				int lowerRow = Math.min(row / interpolationFactorY + 1, dataRows - 1);
+
+				for (int interpolatedRow = upperRow; interpolatedRow <= lowerRow; interpolatedRow++) {
+					if (windowRows[interpolatedRow % 2] != interpolatedRow) {
+						interpolateRow(data, interpolatedRow, dataRow, columnFractions, interpolationFactorX, windowValues,
+								(interpolatedRow % 2) * columns, columns);
+						windowRows[interpolatedRow % 2] = interpolatedRow;
+					}
+				}
+
+				int upper = (upperRow % 2) * columns;
+				int lower = (lowerRow % 2) * columns;
+				double fraction = rowFractions[row % interpolationFactorY];
+
+				if (refinementMask != null) {
+					refinementMask.getRefinedSamples(row, interpolationFactorX, interpolationFactorY, refinedSamples);
+				}
+
+				// Columns of the data values lie at every interpolationFactorX column of the interpolated rows.
+				int nearest = (Math.min(Interpolator.getNearest(row, interpolationFactorY), dataRows - 1) % 2) * columns;
+
+				for (int column = 0; column < columns; column++) {
+					if (refinedSamples == null || refinedSamples[column]) {
+						double value = windowValues[upper + column];
+						upsampledRow[column] = value + (windowValues[lower + column] - value) * fraction;
+					} else {
+						upsampledRow[column] = windowValues[nearest
+								+ Interpolator.getNearest(column, interpolationFactorX) * interpolationFactorX];
+					}
+				}
+
+				upsampledData.writeRow(row, upsampledRow, 0);
+			}
+		});
+	}
+
+	/**
+	 * Reads the data row into the buffer, extended by its last value, and interpolates it along its columns into the given
+	 * number of values of the result.
+	 */
+	private static void interpolateRow(Grid2D data, int row, double[] dataRow, double[] columnFractions, int interpolationFactor,
+			double[] result, int resultOffset, int columns) {
+
+		int dataColumns = data.getWidth();
+		data.readRow(row, 0, dataColumns, dataRow, 0);
+		dataRow[dataColumns] = dataRow[dataColumns - 1];
+
+		for (int yi = 0, column = 0; column < columns; yi++) {
+
+			int left = Math.min(yi, dataColumns - 1);
+			double value = dataRow[left];
+			double difference = dataRow[left + 1] - value;
+
+			for (int phase = 0; phase < interpolationFactor && column < columns; phase++, column++) {
+				result[resultOffset + column] = value + difference * columnFractions[phase];
+			}
+		}
+	}
+
+	private static double[] getFractions(int interpolationFactor) {
+		double[] fractions = new double[interpolationFactor];
+		for (int phase = 0; phase < interpolationFactor; phase++) {
+			fractions[phase] = phase / (double) interpolationFactor;
+		}
+		return fractions;
+	}
+}
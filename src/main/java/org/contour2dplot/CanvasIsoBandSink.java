@@ -0,0 +1,54 @@
+package org.contour2dplot;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Paints iso band polygons on a canvas, filled and stroked the same way as polygons of {@link IsoCell} panes.
+ */
+public class CanvasIsoBandSink implements IsoBandSink {
+
+	private GraphicsContext graphicsContext;
+
+	private double[] xPoints = new double[8];
+	private double[] yPoints = new double[8];
+
+	public CanvasIsoBandSink(GraphicsContext graphicsContext) {
+		this.graphicsContext = graphicsContext;
+		this.graphicsContext.setLineWidth(2);
+	}
+
+	@Override
+	public void addPolygon(double[] points, int numberOfPoints, Color color) {
+
+		if (xPoints.length < numberOfPoints) {
+			xPoints = new double[numberOfPoints];
+			yPoints = new double[numberOfPoints];
+		}
+
+		for (int i = 0; i < numberOfPoints; i++) {
+			xPoints[i] = points[2 * i];
+			yPoints[i] = points[2 * i + 1];
+		}
+
+		graphicsContext.setFill(color);
+		graphicsContext.setStroke(color);
+		graphicsContext.fillPolygon(xPoints, yPoints, numberOfPoints);
+		graphicsContext.strokePolygon(xPoints, yPoints, numberOfPoints);
+	}
+}
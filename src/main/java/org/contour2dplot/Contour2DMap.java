@@ -3,11 +3,34 @@ package org.contour2dplot;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,13 +58,121 @@ public class Contour2DMap extends Pane {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(Contour2DMap.class);
 
+	// Histogram of the interpolated data splits the range of the data into bins of equal width.
+	private static final int NUMBER_OF_HISTOGRAM_BINS = 256;
+
+	// Stencil of the bicubic interpolation reaches two values past a cell, so missing values are filled that far.
+	private static final int MISSING_DATA_FILLING_ROUNDS = 2;
+
+	// Quantile sketch of the data keeps this many values per level, which bounds errors of quantile iso levels by a few percent
+	// of the data values even for grids of billions of values.
+	private static final int QUANTILE_SKETCH_CAPACITY = 1024;
+
+	// Polygons of the "Canvas" render mode are stroked with lines of 2 pixels, which reach a pixel out of their iso cells.
+	private static final double CANVAS_STROKE_REACH = 2;
+
 	private double sizeX;
 	private double sizeY;
 
-	private double[][] data;
+	private Grid2D data;
+	private long dataVersion;
 	private double isoFactor;
-	private int interpolationFactor;
+	private int interpolationFactorX;
+	private int interpolationFactorY;
+	private double targetPixelsPerSample;
 	private String mapColorScale;
+	private String renderMode = "Panes";
+	private String gridStorage = "Double";
+	private String isoLevelMode = "Uniform";
+	private boolean adaptiveRefinement;
+	private double noDataValue = Double.NaN;
+
+	// Nodes kept between subsequent draws, so the same sized map is redrawn without rebuilding the scene graph.
+	private String renderedMode;
+	private ArrayList<ArrayList<IsoCell>> isoCells;
+	private int isoCellsColumns;
+	private int isoCellsRows;
+	private Canvas canvas;
+	private ImageView imageView;
+	private ArrayList<Path> paths = new ArrayList<>();
+
+	private IsoCaseGrid isoCaseGrid = new IsoCaseGrid();
+
+	private Interpolator interpolator = new BicubicInterpolator();
+
+	private ForkJoinPool forkJoinPool;
+
+	// Latest requested frame, cancelled as soon as a newer one is requested, and buffers of the frame committed before the last
+	// one, which are reused by the next computed frame.
+	private AtomicReference<Frame> latestFrame = new AtomicReference<>();
+	private Frame committedFrame;
+	private AtomicReference<Frame> spareFrame = new AtomicReference<>();
+	// Guards handing results of the committed frame over to a frame being computed against recycling them.
+	private final Object committedFrameLock = new Object();
+
+	/**
+	 * Settings captured when drawing is requested, together with everything computed from them off the JavaFX Application
+	 * Thread, so the frame can be committed to the nodes of the map in one go.
+	 */
+	private static final class Frame {
+
+		private double sizeX;
+		private double sizeY;
+		private Grid2D data;
+		private long dataVersion;
+		private double isoFactor;
+		private int interpolationFactorX;
+		private int interpolationFactorY;
+		private String mapColorScale;
+		private String renderMode;
+		private String gridStorage;
+		private String isoLevelMode;
+		private boolean adaptiveRefinement;
+		private double noDataValue;
+		private Interpolator interpolator;
+		private ForkJoinPool forkJoinPool;
+		private DoubleConsumer progressListener;
+
+		private Grid2D interpolatedData;
+		private RefinementMask refinementMask;
+		private BitSet validCells;
+		private GridStatistics dataStatistics;
+		private GridStatistics statistics;
+		private ArrayList<Double> isoValues;
+		private ArrayList<Color> colorScale;
+		private IsoCaseGrid isoCaseGrid;
+		private boolean classified;
+		private HashMap<Color, ArrayList<int[]>> outlinesOfBands;
+		private int[] pixels;
+
+		// Results taken over from the committed frame, which still owns them until this frame is committed.
+		private boolean sharedInterpolatedData;
+		private boolean sharedIsoCaseGrid;
+		// Set once a computed frame took over results of this one, so they are never recycled into the spare frame.
+		private boolean lent;
+
+		private volatile boolean cancelled;
+		private CompletableFuture<Void> future;
+
+		private void cancel() {
+			cancelled = true;
+			if (future != null) {
+				future.cancel(false);
+			}
+		}
+
+		private void checkCancelled() {
+			if (cancelled) {
+				throw new CancellationException("Frame was replaced by a newer one.");
+			}
+		}
+
+		private void reportProgress(double progress) {
+			if (progressListener != null) {
+				progressListener.accept(progress);
+			}
+		}
+	}
 
 	public Contour2DMap() {
 		super();
@@ -53,133 +184,1114 @@ public class Contour2DMap extends Pane {
 		this.sizeY = sizeY;
 	}
 
+	/**
+	 * Computes and draws the map on the calling thread, which has to be the JavaFX Application Thread once the map is shown.
+	 * Cancels the frame of any pending {@link #drawAsync(Executor)}.
+	 */
 	public void draw() {
+		Frame frame = requestFrame(null);
+		computeFrame(frame);
+		commitFrame(frame);
+	}
+
+	public CompletableFuture<Void> drawAsync(Executor executor) {
+		return drawAsync(executor, null);
+	}
+
+	/**
+	 * Computes the map on the given executor and draws it on the JavaFX Application Thread. Only the latest frame is ever drawn:
+	 * a newer {@link #setData(Grid2D)}, {@link #draw()} or drawAsync cancels the frame still being computed, which completes
+	 * its future as cancelled. Cancelling the returned future cancels the frame as well.
+	 *
+	 * @param progressListener receives progress from 0 to 1 on the thread which reached it, may be null.
+	 */
+	public CompletableFuture<Void> drawAsync(Executor executor, DoubleConsumer progressListener) {
+
+		Frame frame = requestFrame(progressListener);
+
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		future.whenComplete((result, throwable) -> {
+			if (future.isCancelled()) {
+				frame.cancelled = true;
+			}
+		});
+		frame.future = future;
+
+		executor.execute(() -> {
+			try {
+				computeFrame(frame);
+				Platform.runLater(() -> {
+					if (frame.cancelled) {
+						recycleFrame(frame);
+						return;
+					}
+					commitFrame(frame);
+					future.complete(null);
+				});
+			} catch (CancellationException ex) {
+				recycleFrame(frame);
+				future.cancel(false);
+			} catch (Throwable throwable) {
+				recycleFrame(frame);
+				future.completeExceptionally(throwable);
+			}
+		});
+
+		return future;
+	}
+
+	/**
+	 * Redraws the map after values of the data grid from fromRow to toRow and from fromColumn to toColumn, not including the
+	 * last ones, were changed in place. Interpolation of a data cell only reads the 4 x 4 data values around it, so only the
+	 * data cells reaching a changed value are interpolated again, only iso cells between their interpolated rows are
+	 * classified again, and only these rows are drawn again over the iso cells, canvas or image of the last draw. Outlines of
+	 * the "Paths" render mode are traced again from the whole classification.
+	 * <p>
+	 * The whole map is drawn again by {@link #draw()} if settings changed since the last draw, with adaptive refinement or
+	 * missing data, or if the changed values move the range of the data. If they move quantile iso levels, the patched
+	 * interpolated data is classified and drawn again as a whole. Has to be called on the JavaFX Application Thread once the
+	 * map is shown, and cancels the frame of any pending {@link #drawAsync(Executor)}.
+	 */
+	public void updateSamples(int fromRow, int fromColumn, int toRow, int toColumn) {
+
+		fromRow = Math.max(0, fromRow);
+		fromColumn = Math.max(0, fromColumn);
+		toRow = Math.min(data.getHeight(), toRow);
+		toColumn = Math.min(data.getWidth(), toColumn);
+		if (fromRow >= toRow || fromColumn >= toColumn) {
+			return;
+		}
+
+		// Halo repeats the edge values, which may have changed.
+		data.fillHalo();
+
+		Frame frame = requestFrame(null);
+		Frame committed;
+		synchronized (committedFrameLock) {
+			committed = committedFrame;
+		}
+
+		if (!canUpdateSamples(committed, frame, fromRow, fromColumn, toRow, toColumn)) {
+			LOGGER.debug("Drawing the whole map with updated samples...");
+			dataVersion++;
+			draw();
+			return;
+		}
+
+		committed.dataStatistics = frame.dataStatistics;
+
+		int interpolationFactorX = committed.interpolationFactorX;
+		int interpolationFactorY = committed.interpolationFactorY;
+
+		// Stencils of the data cells reach one value before and two values after them.
+		int fromCellRow = Math.max(0, fromRow - 2);
+		int fromCellColumn = Math.max(0, fromColumn - 2);
+		int toCellRow = Math.min(data.getHeight() - 1, toRow + 1);
+		int toCellColumn = Math.min(data.getWidth() - 1, toColumn + 1);
+		if (fromCellRow >= toCellRow || fromCellColumn >= toCellColumn) {
+			return;
+		}
+
+		int fromSampleRow = fromCellRow * interpolationFactorY;
+		int toSampleRow = toCellRow * interpolationFactorY;
+		int fromSampleColumn = fromCellColumn * interpolationFactorX;
+		int toSampleColumn = toCellColumn * interpolationFactorX;
+
+		Grid2D interpolatedData = committed.interpolatedData;
+
+		GridStatistics statistics = committed.statistics;
+
+		GridStatistics previousStatistics = getStatistics(interpolatedData, committed.validCells, fromSampleRow,
+				fromSampleColumn, toSampleRow + 1, toSampleColumn + 1, null);
+		interpolateCells(committed, fromCellRow, fromCellColumn, toCellRow, toCellColumn);
+		GridStatistics updatedStatistics = getStatistics(interpolatedData, committed.validCells, fromSampleRow,
+				fromSampleColumn, toSampleRow + 1, toSampleColumn + 1, null);
+
+		// Extremes of the interpolated data may have been overwritten, so they are searched for in the whole grid again.
+		if (previousStatistics.getMinimum() <= statistics.getMinimum()
+				|| previousStatistics.getMaximum() >= statistics.getMaximum()) {
+			committed.statistics = getStatistics(interpolatedData, committed.validCells, 0, 0, interpolatedData.getHeight(),
+					interpolatedData.getWidth(), committed.forkJoinPool);
+		} else {
+			statistics.subtract(previousStatistics);
+			statistics.add(updatedStatistics);
+		}
+
+		if (!getIsoValues(committed).equals(committed.isoValues)) {
+			LOGGER.debug("Drawing the map with updated iso levels...");
+			draw();
+			return;
+		}
+
+		LOGGER.debug("Drawing updated rows {} to {}...", fromSampleRow, toSampleRow);
+
+		if (committed.classified) {
+			committed.isoCaseGrid.reclassify(interpolatedData, toArray(committed.isoValues), committed.validCells,
+					fromSampleRow, toSampleRow);
+		}
+
+		switch (committed.renderMode) {
+			case "Canvas":
 
-		double[][] interpolatedData = interpolateData();
+				redrawCanvas(committed, fromSampleRow, toSampleRow);
 
-		ArrayList<Double> isoValues = getIsoValues(interpolatedData);
+				break;
+			case "Panes":
+
+				for (int row = fromSampleRow; row < toSampleRow; row++) {
+					for (IsoCell isoCell : isoCells.get(row)) {
+						isoCell.clearIsoBands();
+					}
+				}
+
+				renderIsoCells(committed.isoCaseGrid, committed.colorScale, isoCells, null, null, null, fromSampleRow,
+						toSampleRow);
+
+				for (int row = fromSampleRow; row < toSampleRow; row++) {
+					for (IsoCell isoCell : isoCells.get(row)) {
+						isoCell.hideUnusedPolygons();
+					}
+				}
 
-		ArrayList<Color> colorScale = getColorScale(isoValues);
+				break;
+			case "Raster":
+
+				int width = (int) Math.ceil(committed.sizeX);
+				int height = (int) Math.ceil(committed.sizeY);
+				double pixelsPerSample = committed.sizeY / (interpolatedData.getHeight() - 1);
+
+				// Pixels are sampled at (y + 0.5) / pixelsPerSample, between the interpolated rows around it.
+				int fromPixelRow = Math.max(0, (int) Math.floor((fromSampleRow - 1) * pixelsPerSample - 0.5));
+				int toPixelRow = Math.min(height, (int) Math.ceil((toSampleRow + 1) * pixelsPerSample + 0.5));
+
+				computeRaster(committed, fromPixelRow, toPixelRow);
+
+				((WritableImage) imageView.getImage()).getPixelWriter().setPixels(0, fromPixelRow, width,
+						toPixelRow - fromPixelRow, PixelFormat.getIntArgbInstance(), committed.pixels, fromPixelRow * width,
+						width);
+
+				break;
+			case "Paths":
 
-		ArrayList<ArrayList<IsoCell>> isoCells = getIsoCells(interpolatedData);
+				committed.outlinesOfBands = traceIsoBands(committed);
+				renderIsoBandPaths(interpolatedData, committed.colorScale, committed.outlinesOfBands);
 
-		renderIsoCells(interpolatedData, isoValues, colorScale, isoCells);
+				break;
+		}
 	}
 
-	private double[][] interpolateData() {
-		ArrayList<ArrayList<Double>> temporalData = new ArrayList<>();
-		BicubicInterpolator bicubicInterpolator = new BicubicInterpolator();
+	/**
+	 * Tells whether the committed frame can be patched after the given values of the data changed, instead of computing the
+	 * requested frame, which collects statistics of the changed data. Interpolated data is clamped to the range of the data,
+	 * and quantized within it by the "Short" storage, so the range must not change.
+	 */
+	private boolean canUpdateSamples(Frame committed, Frame frame, int fromRow, int fromColumn, int toRow, int toColumn) {
 
-		double minDataValue = findMin(data);
-		double maxDataValue = findMax(data);
+		if (committed == null || !hasSameInterpolation(committed, frame) || frame.adaptiveRefinement
+				|| committed.validCells != null || committed.sizeX != frame.sizeX || committed.sizeY != frame.sizeY
+				|| committed.isoFactor != frame.isoFactor || !committed.mapColorScale.equals(frame.mapColorScale)
+				|| !committed.renderMode.equals(frame.renderMode) || !committed.isoLevelMode.equals(frame.isoLevelMode)) {
+			return false;
+		}
 
-		for (int i = 0; i < data.length * interpolationFactor; i++) {
-			double idx = i * (1.0 / interpolationFactor);
-			ArrayList<Double> row = new ArrayList<>();
-			for (int j = 0; j < data[0].length * interpolationFactor; j++) {
-				double jdy = j * (1.0 / interpolationFactor);
-				double value = bicubicInterpolator.getValue(data, idx, jdy);
+		Grid2D data = frame.data;
 
-				if (value < minDataValue) {
-					value = minDataValue;
-				} else if (value > maxDataValue) {
-					value = maxDataValue;
+		double noDataValue = data.round(frame.noDataValue);
+		double[] values = new double[toColumn - fromColumn];
+		for (int row = fromRow; row < toRow; row++) {
+			data.readRow(row, fromColumn, values.length, values, 0);
+			for (double value : values) {
+				if (isMissing(value, noDataValue)) {
+					return false;
 				}
+			}
+		}
+
+		frame.dataStatistics = getDataStatistics(frame, data, noDataValue);
+		Grid2D interpolatedData = committed.interpolatedData;
+		return frame.dataStatistics.getMinimum() == interpolatedData.getMinimum()
+				&& frame.dataStatistics.getMaximum() == interpolatedData.getMaximum();
+	}
+
+	/**
+	 * Interpolates the given data cells of the frame again. Cells are upsampled from a copy of the data values their stencils
+	 * reach, so stencils are only clamped at the edges of the data, as when the whole data is upsampled, and the samples are
+	 * the same.
+	 */
+	private void interpolateCells(Frame frame, int fromCellRow, int fromCellColumn, int toCellRow, int toCellColumn) {
+
+		Grid2D data = frame.data;
+		int interpolationFactorX = frame.interpolationFactorX;
+		int interpolationFactorY = frame.interpolationFactorY;
+
+		int fromDataRow = Math.max(0, fromCellRow - 1);
+		int fromDataColumn = Math.max(0, fromCellColumn - 1);
+		int toDataRow = Math.min(data.getHeight(), toCellRow + 2);
+		int toDataColumn = Math.min(data.getWidth(), toCellColumn + 2);
 
-				row.add(value);
+		Grid2D dataOfCells = new Grid2D(toDataColumn - fromDataColumn, toDataRow - fromDataRow, 2);
+		for (int row = fromDataRow; row < toDataRow; row++) {
+			data.readRow(row, fromDataColumn, dataOfCells.getWidth(), dataOfCells.getValues(),
+					dataOfCells.getIndex(row - fromDataRow, 0));
+		}
+		dataOfCells.fillHalo();
+
+		Grid2D interpolatedCells = new Grid2D((dataOfCells.getWidth() - 1) * interpolationFactorX + 1,
+				(dataOfCells.getHeight() - 1) * interpolationFactorY + 1);
+		frame.interpolator.upsample(dataOfCells, interpolationFactorX, interpolationFactorY, interpolatedCells,
+				frame.forkJoinPool);
+
+		Grid2D interpolatedData = frame.interpolatedData;
+		int firstRow = fromDataRow * interpolationFactorY;
+		int firstColumn = fromDataColumn * interpolationFactorX;
+
+		for (int row = fromCellRow * interpolationFactorY; row <= toCellRow * interpolationFactorY; row++) {
+			for (int column = fromCellColumn * interpolationFactorX; column <= toCellColumn * interpolationFactorX; column++) {
+				interpolatedData.set(row, column, interpolatedCells.get(row - firstRow, column - firstColumn));
 			}
-			temporalData.add(row);
 		}
 
-		LOGGER.debug("Temporal data ({} x {}):\n{}", temporalData.size(), temporalData.get(0).size(), temporalData);
+		if (frame.interpolator.overshoots()) {
+			interpolatedData.clamp(interpolatedData.getMinimum(), interpolatedData.getMaximum(),
+					fromCellRow * interpolationFactorY, toCellRow * interpolationFactorY + 1);
+		}
+	}
+
+	/**
+	 * Draws the given rows of iso cells of the committed frame again over the canvas. Only whole pixels of the rows are
+	 * cleared, and every iso cell whose stroked polygons reach them is drawn again.
+	 */
+	private void redrawCanvas(Frame frame, int fromRow, int toRow) {
+
+		IsoCaseGrid isoCaseGrid = frame.isoCaseGrid;
+		double isoCellSizeX = frame.sizeX / isoCaseGrid.getColumns();
+		double isoCellSizeY = frame.sizeY / isoCaseGrid.getRows();
+
+		double top = Math.floor(fromRow * isoCellSizeY);
+		double bottom = Math.ceil(toRow * isoCellSizeY);
+
+		int fromCellRow = Math.max(0, (int) Math.floor((top - CANVAS_STROKE_REACH) / isoCellSizeY));
+		int toCellRow = Math.min(isoCaseGrid.getRows(), (int) Math.ceil((bottom + CANVAS_STROKE_REACH) / isoCellSizeY));
+
+		GraphicsContext graphicsContext = canvas.getGraphicsContext2D();
+		graphicsContext.save();
+		graphicsContext.beginPath();
+		graphicsContext.rect(0, top, frame.sizeX, bottom - top);
+		graphicsContext.clip();
+		graphicsContext.clearRect(0, top, frame.sizeX, bottom - top);
+
+		IsoCell canvasIsoCell = new IsoCell(isoCellSizeX, isoCellSizeY, new CanvasIsoBandSink(graphicsContext));
+		renderIsoCells(isoCaseGrid, frame.colorScale, null, canvasIsoCell, null, null, fromCellRow, toCellRow);
 
-		int correction = interpolationFactor - 1;
-		double[][] interpolatedData = new double[temporalData.size() - correction][temporalData.get(0).size() - correction];
+		graphicsContext.restore();
+	}
+
+	/**
+	 * Captures current settings into a new frame, which replaces and cancels the previously requested one.
+	 */
+	private Frame requestFrame(DoubleConsumer progressListener) {
+		Frame frame = new Frame();
+
+		frame.sizeX = sizeX;
+		frame.sizeY = sizeY;
+		frame.data = data;
+		frame.dataVersion = dataVersion;
+		frame.isoFactor = isoFactor;
+		frame.interpolationFactorX = (data != null)
+				? getInterpolationFactor(interpolationFactorX, sizeX, data.getWidth(), targetPixelsPerSample)
+				: interpolationFactorX;
+		frame.interpolationFactorY = (data != null)
+				? getInterpolationFactor(interpolationFactorY, sizeY, data.getHeight(), targetPixelsPerSample)
+				: interpolationFactorY;
+		frame.mapColorScale = mapColorScale;
+		frame.renderMode = renderMode;
+		frame.gridStorage = gridStorage;
+		frame.isoLevelMode = isoLevelMode;
+		frame.adaptiveRefinement = adaptiveRefinement;
+		frame.noDataValue = noDataValue;
+		frame.interpolator = interpolator;
+		frame.forkJoinPool = forkJoinPool;
+		frame.progressListener = progressListener;
+
+		cancelLatestFrame(frame);
+
+		return frame;
+	}
+
+	private void cancelLatestFrame(Frame newFrame) {
+		Frame previousFrame = latestFrame.getAndSet(newFrame);
+		if (previousFrame != null) {
+			previousFrame.cancel();
+		}
+	}
 
-		for (int i = 0; i < interpolatedData.length; i++) {
-			for (int j = 0; j < interpolatedData[i].length; j++) {
-				interpolatedData[i][j] = temporalData.get(i).get(j);
+	/**
+	 * Computes everything which does not touch the nodes of the map, so it may run on any thread.
+	 * <p>
+	 * Stages whose inputs did not change since the committed frame are not computed again: the interpolated data and its range
+	 * are reused as long as the data and the interpolation settings are the same, the classification as long as the iso levels
+	 * are the same too, and the outlines of the "Paths" render mode as long as the colors are the same as well. So changing
+	 * only the iso factor or the color scale skips the interpolation.
+	 */
+	private void computeFrame(Frame frame) {
+
+		Frame spare = spareFrame.getAndSet(null);
+		frame.interpolatedData = (spare != null) ? spare.interpolatedData : null;
+		frame.isoCaseGrid = (spare != null && spare.isoCaseGrid != null) ? spare.isoCaseGrid : new IsoCaseGrid();
+		frame.pixels = (spare != null) ? spare.pixels : null;
+
+		Frame committed;
+		boolean sameInterpolation;
+		synchronized (committedFrameLock) {
+			committed = committedFrame;
+			sameInterpolation = committed != null && hasSameInterpolation(committed, frame);
+			if (sameInterpolation) {
+				committed.lent = true;
 			}
 		}
+		if (sameInterpolation) {
+			LOGGER.debug("Reusing interpolated data...");
+			frame.interpolatedData = committed.interpolatedData;
+			frame.sharedInterpolatedData = true;
+			frame.refinementMask = committed.refinementMask;
+			frame.validCells = committed.validCells;
+			frame.dataStatistics = committed.dataStatistics;
+			frame.statistics = committed.statistics;
+		} else {
+			frame.interpolatedData = interpolateData(frame);
+		}
+		frame.reportProgress(0.4);
+		frame.checkCancelled();
+
+		frame.isoValues = getIsoValues(frame);
+
+		frame.colorScale = getColorScale(frame.isoValues, frame.mapColorScale);
 
-		LOGGER.debug("Interpolated data: double[{}][{}]", interpolatedData.length, interpolatedData[0].length);
+		boolean sameClassification = sameInterpolation && committed.classified && committed.isoValues.equals(frame.isoValues);
+
+		if (!frame.renderMode.equals("Raster")) {
+			if (sameClassification) {
+				LOGGER.debug("Reusing classification of ISO cells...");
+				frame.isoCaseGrid = committed.isoCaseGrid;
+				frame.sharedIsoCaseGrid = true;
+			} else {
+				LOGGER.debug("Classifying ISO cells...");
+				frame.isoCaseGrid.classify(frame.interpolatedData, toArray(frame.isoValues), frame.validCells,
+						frame.forkJoinPool);
+			}
+			frame.classified = true;
+			frame.reportProgress(0.7);
+			frame.checkCancelled();
+		}
+
+		switch (frame.renderMode) {
+			case "Raster":
+
+				computeRaster(frame);
+
+				break;
+			case "Paths":
+
+				HashMap<Color, ArrayList<int[]>> committedOutlinesOfBands = committed != null ? committed.outlinesOfBands : null;
+				if (sameClassification && committedOutlinesOfBands != null && committed.colorScale.equals(frame.colorScale)) {
+					frame.outlinesOfBands = committedOutlinesOfBands;
+					break;
+				}
+
+				frame.outlinesOfBands = traceIsoBands(frame);
+
+				break;
+		}
+
+		frame.reportProgress(0.9);
+		frame.checkCancelled();
+	}
+
+	/**
+	 * Traces outlines of every iso band of the classified frame, in strips of rows stitched together afterwards.
+	 */
+	private HashMap<Color, ArrayList<int[]>> traceIsoBands(Frame frame) {
+
+		int rows = frame.isoCaseGrid.getRows();
+		IsoBandTracer[] isoBandTracers = new IsoBandTracer[RowStrips.getNumberOfStrips(frame.forkJoinPool, rows)];
+
+		RowStrips.forEach(frame.forkJoinPool, rows, (strip, fromRow, toRow) -> {
+			IsoBandTracer isoBandTracer = new IsoBandTracer();
+			IsoCell tracingIsoCell = new IsoCell(IsoBandTracer.LATTICE_CELL_SIZE, IsoBandTracer.LATTICE_CELL_SIZE,
+					isoBandTracer);
+			IsoCell tracingBlockIsoCell = getBlockIsoCell(IsoBandTracer.LATTICE_CELL_SIZE, IsoBandTracer.LATTICE_CELL_SIZE,
+					isoBandTracer, frame.refinementMask, frame.isoCaseGrid);
+			renderIsoCells(frame.isoCaseGrid, frame.colorScale, null, tracingIsoCell, frame.refinementMask,
+					tracingBlockIsoCell, fromRow, toRow);
+			isoBandTracers[strip] = isoBandTracer;
+		});
+
+		for (int i = 1; i < isoBandTracers.length; i++) {
+			isoBandTracers[0].merge(isoBandTracers[i]);
+		}
+
+		return isoBandTracers[0].trace();
+	}
+
+	/**
+	 * Updates nodes of the map with the computed frame. Nodes are only modified here, on the JavaFX Application Thread.
+	 */
+	private void commitFrame(Frame frame) {
+
+		if (!frame.renderMode.equals(renderedMode)) {
+			releaseNodes();
+			renderedMode = frame.renderMode;
+		}
+
+		Grid2D interpolatedData = frame.interpolatedData;
+
+		switch (frame.renderMode) {
+			case "Canvas":
+
+				IsoCell canvasIsoCell = getCanvasIsoCell(interpolatedData);
+				IsoCell canvasBlockIsoCell = getBlockIsoCell(sizeX / frame.isoCaseGrid.getColumns(),
+						sizeY / frame.isoCaseGrid.getRows(), new CanvasIsoBandSink(canvas.getGraphicsContext2D()),
+						frame.refinementMask, frame.isoCaseGrid);
+
+				renderIsoCells(frame.isoCaseGrid, frame.colorScale, null, canvasIsoCell, frame.refinementMask,
+						canvasBlockIsoCell, 0, frame.isoCaseGrid.getRows());
+
+				break;
+			case "Panes":
+
+				ArrayList<ArrayList<IsoCell>> isoCells = getIsoCells(interpolatedData);
+
+				renderIsoCells(frame.isoCaseGrid, frame.colorScale, isoCells, null, null, null, 0,
+						frame.isoCaseGrid.getRows());
+
+				for (ArrayList<IsoCell> isoCellsRow : isoCells) {
+					for (IsoCell isoCell : isoCellsRow) {
+						isoCell.hideUnusedPolygons();
+					}
+				}
+
+				break;
+			case "Raster":
+
+				renderRaster(frame);
+
+				break;
+			case "Paths":
+
+				renderIsoBandPaths(interpolatedData, frame.colorScale, frame.outlinesOfBands);
+
+				break;
+		}
+
+		isoCaseGrid = frame.isoCaseGrid;
+
+		// Results taken over from the previous frame now belong to this one.
+		frame.sharedInterpolatedData = false;
+		frame.sharedIsoCaseGrid = false;
+
+		synchronized (committedFrameLock) {
+			Frame previousFrame = committedFrame;
+			committedFrame = frame;
+			if (previousFrame != null) {
+				recycleFrame(previousFrame);
+			}
+		}
+
+		frame.reportProgress(1.0);
+	}
+
+	/**
+	 * Drops results of the frame which cannot be reused and keeps its buffers for the next computed frame. Buffers shared with
+	 * another frame are dropped as well, so they are never overwritten while that frame still reads them.
+	 */
+	private void recycleFrame(Frame frame) {
+		frame.data = null;
+		frame.outlinesOfBands = null;
+		if (frame.sharedInterpolatedData || frame.lent) {
+			frame.interpolatedData = null;
+		}
+		if (frame.sharedIsoCaseGrid || frame.lent) {
+			frame.isoCaseGrid = null;
+		}
+		if (frame.interpolatedData != null || frame.isoCaseGrid != null || frame.pixels != null) {
+			spareFrame.set(frame);
+		}
+	}
+
+	/**
+	 * Tells whether the frame interpolates the same data version with the same settings as the committed frame. With adaptive
+	 * refinement the interpolated data also depends on the iso levels, so on the iso factor and the iso level mode. Quantile
+	 * iso levels need the quantile sketch of the data, which is only collected in that mode.
+	 */
+	private static boolean hasSameInterpolation(Frame committed, Frame frame) {
+		return committed.interpolatedData != null
+				&& committed.data == frame.data
+				&& committed.dataVersion == frame.dataVersion
+				&& committed.interpolationFactorX == frame.interpolationFactorX
+				&& committed.interpolationFactorY == frame.interpolationFactorY
+				&& committed.interpolator == frame.interpolator
+				&& committed.gridStorage.equals(frame.gridStorage)
+				&& Double.compare(committed.noDataValue, frame.noDataValue) == 0
+				&& committed.adaptiveRefinement == frame.adaptiveRefinement
+				&& (!frame.adaptiveRefinement
+						|| committed.isoFactor == frame.isoFactor && committed.isoLevelMode.equals(frame.isoLevelMode))
+				&& (!frame.isoLevelMode.equals("Quantile") || committed.dataStatistics.getQuantileSketch() != null);
+	}
+
+	/**
+	 * Upsamples the data by the interpolation factors and, if the interpolator overshoots, clamps the result to the range of the
+	 * data, so overshoots of the bicubic interpolation do not create iso bands absent from the data. Only samples between the
+	 * first and the last data row and column are computed, which gives (n - 1) * interpolationFactor + 1 samples along an axis
+	 * of n data values.
+	 * <p>
+	 * If any data value is missing, missing values are filled in first and only interpolated cells lying on data cells with
+	 * four measured corners are marked as valid. Only samples touching these data cells are interpolated, while the others take
+	 * the nearest data values, as with adaptive refinement, which never refines a data cell with a missing corner.
+	 */
+	private Grid2D interpolateData(Frame frame) {
+		Grid2D data = frame.data;
+
+		// Grids of reduced storages hold the no-data value as it was stored.
+		double noDataValue = data.round(frame.noDataValue);
+
+		// Statistics, and quantile iso levels, only describe measured values, so they are collected before filling the rest.
+		frame.dataStatistics = getDataStatistics(frame, data, noDataValue);
+		double minDataValue = frame.dataStatistics.getMinimum();
+		double maxDataValue = frame.dataStatistics.getMaximum();
+
+		BitSet validDataCells = findValidDataCells(data, noDataValue);
+		if (validDataCells != null) {
+			data = fillMissingData(data, noDataValue);
+		}
+
+		int interpolationFactorX = frame.interpolationFactorX;
+		int interpolationFactorY = frame.interpolationFactorY;
+
+		int rows = (data.getHeight() - 1) * interpolationFactorY + 1;
+		int columns = (data.getWidth() - 1) * interpolationFactorX + 1;
+
+		// Quantized grids keep the range of the data, so clamped values are always representable.
+		Grid2D interpolatedData = frame.interpolatedData;
+		if (interpolatedData == null || interpolatedData.getHeight() != rows || interpolatedData.getWidth() != columns
+				|| !interpolatedData.getStorage().equals(frame.gridStorage) || interpolatedData.getMinimum() != minDataValue
+				|| interpolatedData.getMaximum() != maxDataValue) {
+			interpolatedData = new Grid2D(columns, rows, 0, frame.gridStorage, minDataValue, maxDataValue);
+			frame.interpolatedData = interpolatedData;
+		}
+
+		frame.refinementMask = null;
+		if (frame.adaptiveRefinement) {
+			frame.isoValues = getIsoValues(frame);
+			frame.refinementMask = getRefinementMask(frame, data, validDataCells, minDataValue, maxDataValue,
+					interpolatedData.getRoundingError());
+		}
+
+		frame.validCells = (validDataCells != null)
+				? getValidCells(validDataCells, data.getWidth() - 1, interpolationFactorX, interpolationFactorY, rows - 1)
+				: null;
+
+		RefinementMask interpolationMask = frame.refinementMask;
+		if (interpolationMask == null && validDataCells != null) {
+			interpolationMask = getValidDataCellsMask(validDataCells, data.getWidth() - 1, data.getHeight() - 1);
+		}
+
+		frame.interpolator.upsample(data, interpolationFactorX, interpolationFactorY, interpolatedData, interpolationMask,
+				frame.forkJoinPool);
+
+		// Rows are clamped, if needed, and added to the statistics in the same pass, while they are still in the cache.
+		boolean clamped = frame.interpolator.overshoots();
+		Grid2D upsampledData = interpolatedData;
+		BitSet validCells = frame.validCells;
+		GridStatistics[] statisticsOfStrips = new GridStatistics[RowStrips.getNumberOfStrips(frame.forkJoinPool, rows)];
+
+		RowStrips.forEach(frame.forkJoinPool, rows, (strip, fromRow, toRow) -> {
+			GridStatistics statisticsOfStrip = new GridStatistics(NUMBER_OF_HISTOGRAM_BINS, minDataValue, maxDataValue);
+			double[] values = new double[columns];
+			for (int i = fromRow; i < toRow; i++) {
+				frame.checkCancelled();
+				if (clamped) {
+					upsampledData.clamp(minDataValue, maxDataValue, i, i + 1);
+				}
+				upsampledData.readRow(i, 0, columns, values, 0);
+				if (validCells != null) {
+					skipInvalidSamples(validCells, columns - 1, rows - 1, i, 0, values, columns);
+				}
+				statisticsOfStrip.add(values, 0, columns);
+			}
+			statisticsOfStrips[strip] = statisticsOfStrip;
+		});
+
+		frame.statistics = GridStatistics.merge(statisticsOfStrips);
+
+		LOGGER.debug("Interpolated data: {} x {}", columns, rows);
 
 		return interpolatedData;
 	}
 
 	/**
-	 * Based on: https://en.wikipedia.org/wiki/Marching_squares#Isoband. For each isoColor draw polygon in the specific isoCell if
-	 * ternary index is different than 0 and 80.
+	 * Marks cells of the data whose interpolated values can cross an iso level. Each cell is bounded by
+	 * {@link Interpolator#getCellRange}, widened by rounding errors of the interpolation and of the storage of the interpolated
+	 * grid; cells whose whole range lies in the same iso bands, and cells which are not valid, are left to be filled as single
+	 * blocks.
+	 */
+	private RefinementMask getRefinementMask(Frame frame, Grid2D data, BitSet validDataCells, double minDataValue,
+			double maxDataValue, double roundingError) {
+		double[] isoLevels = toArray(frame.isoValues);
+		boolean clamped = frame.interpolator.overshoots();
+
+		RefinementMask refinementMask = new RefinementMask(Math.max(0, data.getWidth() - 1), Math.max(0, data.getHeight() - 1));
+
+		RowStrips.forEach(frame.forkJoinPool, refinementMask.getRows(), (strip, fromRow, toRow) -> {
+			double[] range = new double[2];
+			for (int row = fromRow; row < toRow; row++) {
+				frame.checkCancelled();
+				for (int column = 0; column < refinementMask.getColumns(); column++) {
+					if (validDataCells != null && !validDataCells.get(row * refinementMask.getColumns() + column)) {
+						continue;
+					}
+
+					frame.interpolator.getCellRange(data, row, column, range);
+
+					double low = clamped ? Math.max(minDataValue, range[0]) : range[0];
+					double high = clamped ? Math.min(maxDataValue, range[1]) : range[1];
+					double margin = roundingError + 16 * Math.ulp(Math.max(Math.abs(low), Math.abs(high)));
+					low -= margin;
+					high += margin;
+
+					// Both band indices grow with the value, so equal indices at the ends hold over the whole range.
+					boolean refined = !(low <= high)
+							|| IsoCaseGrid.findFirstBand(isoLevels, low) != IsoCaseGrid.findFirstBand(isoLevels, high)
+							|| IsoCaseGrid.findLastBand(isoLevels, low) != IsoCaseGrid.findLastBand(isoLevels, high);
+					refinementMask.setRefined(row, column, refined);
+				}
+			}
+		});
+
+		LOGGER.debug("Refined cells: {} of {}", refinementMask.getNumberOfRefinedCells(),
+				refinementMask.getColumns() * refinementMask.getRows());
+
+		return refinementMask;
+	}
+
+	/**
+	 * Returns the set of data cells whose four corners are measured, indexed by row * columns + column of the cell, or null if
+	 * no value of the data is missing. Values are missing if they are NaN or equal to the no-data value.
+	 */
+	private static BitSet findValidDataCells(Grid2D data, double noDataValue) {
+		int width = data.getWidth();
+		int columns = width - 1;
+
+		BitSet validDataCells = new BitSet();
+		boolean anyMissing = false;
+
+		// Rows are read in turns into two halves of the buffer.
+		double[] values = new double[2 * width];
+
+		for (int row = 0; row < data.getHeight(); row++) {
+
+			int offset = (row % 2) * width;
+			data.readRow(row, 0, width, values, offset);
+
+			for (int column = 0; column < width; column++) {
+				if (isMissing(values[offset + column], noDataValue)) {
+					anyMissing = true;
+				}
+			}
+
+			if (row == 0) {
+				continue;
+			}
+
+			int previousOffset = width - offset;
+
+			for (int column = 0; column < columns; column++) {
+				if (!isMissing(values[previousOffset + column], noDataValue)
+						&& !isMissing(values[previousOffset + column + 1], noDataValue)
+						&& !isMissing(values[offset + column], noDataValue)
+						&& !isMissing(values[offset + column + 1], noDataValue)) {
+					validDataCells.set((row - 1) * columns + column);
+				}
+			}
+		}
+
+		return anyMissing ? validDataCells : null;
+	}
+
+	/**
+	 * Returns the data with missing values filled in, in as many rounds as the stencil of the bicubic interpolation reaches past
+	 * a cell, by the average of their neighbours filled so far. Stencils of cells with four measured corners then read only
+	 * finite values, which stay within the range of the measured data. Data on the heap is copied once, with missing values
+	 * replaced by NaN, and filled in place. Data mapped from a file is not copied; only the rows read by the interpolation are
+	 * filled, when they are read.
 	 */
-	private void renderIsoCells(double[][] interpolatedData, ArrayList<Double> isoValues, ArrayList<Color> colorScale,
-			ArrayList<ArrayList<IsoCell>> isoCells) {
+	private static Grid2D fillMissingData(Grid2D data, double noDataValue) {
+		int width = data.getWidth();
+		int height = data.getHeight();
+
+		if (data.getStorage().equals("Mapped")) {
+			return data.withMissingValuesFilled(noDataValue, MISSING_DATA_FILLING_ROUNDS);
+		}
+
+		Grid2D filledData = new Grid2D(width, height, 2);
+		double[] values = new double[width];
+
+		for (int row = 0; row < height; row++) {
+			data.readRow(row, 0, width, values, 0);
+			for (int column = 0; column < width; column++) {
+				if (isMissing(values[column], noDataValue)) {
+					values[column] = Double.NaN;
+				}
+			}
+			filledData.writeRow(row, values, 0);
+		}
+
+		filledData.fillMissingValues(MISSING_DATA_FILLING_ROUNDS);
+		filledData.fillHalo();
+
+		return filledData;
+	}
+
+	private static boolean isMissing(double value, double noDataValue) {
+		return Double.isNaN(value) || value == noDataValue;
+	}
+
+	/**
+	 * Returns refinement mask marking the valid data cells, so only samples touching them are interpolated.
+	 */
+	private static RefinementMask getValidDataCellsMask(BitSet validDataCells, int columns, int rows) {
+		RefinementMask validDataCellsMask = new RefinementMask(columns, rows);
+		for (int cell = validDataCells.nextSetBit(0); cell >= 0; cell = validDataCells.nextSetBit(cell + 1)) {
+			validDataCellsMask.setRefined(cell / columns, cell % columns, true);
+		}
+		return validDataCellsMask;
+	}
+
+	/**
+	 * Returns the set of interpolated cells lying on valid data cells, indexed like the cells of {@link IsoCaseGrid}.
+	 */
+	private static BitSet getValidCells(BitSet validDataCells, int dataColumns, int interpolationFactorX,
+			int interpolationFactorY, int rows) {
+		int columns = dataColumns * interpolationFactorX;
+		BitSet validCells = new BitSet(rows * columns);
+
+		for (int row = 0; row < rows; row++) {
+
+			int firstDataCell = (row / interpolationFactorY) * dataColumns;
+			int lastDataCell = firstDataCell + dataColumns;
+
+			for (int from = validDataCells.nextSetBit(firstDataCell); from >= 0 && from < lastDataCell;
+					from = validDataCells.nextSetBit(from)) {
+				int to = Math.min(lastDataCell, validDataCells.nextClearBit(from));
+				validCells.set(row * columns + (from - firstDataCell) * interpolationFactorX,
+						row * columns + (to - firstDataCell) * interpolationFactorX);
+				from = to;
+			}
+		}
+
+		return validCells;
+	}
+
+	/**
+	 * Returns the interpolation factor of an axis of the given number of data values. With a target of pixels per sample, it
+	 * is the largest factor whose samples lie at least that many pixels apart across the size of the map, but at least 1. The
+	 * numberOfValues - 1 spans between data values are split into interpolationFactor spans each, and all of them share the size.
+	 */
+	private static int getInterpolationFactor(int interpolationFactor, double size, int numberOfValues,
+			double targetPixelsPerSample) {
+		if (targetPixelsPerSample <= 0 || numberOfValues < 2) {
+			return interpolationFactor;
+		}
+		return Math.max(1, (int) Math.floor(size / (targetPixelsPerSample * (numberOfValues - 1))));
+	}
+
+	/**
+	 * Based on: https://en.wikipedia.org/wiki/Marching_squares#Isoband. Every isoCell of the given rows, classified once by
+	 * {@link IsoCaseGrid}, draws polygon for each isoColor whose range is crossed by the values of its corners. Polygons are
+	 * either added to the iso cells of the given matrix or, when the matrix is null, passed by the single detached iso cell moved
+	 * over the position of each cell. Iso cells covering a data cell left out by the refinement mask all lie inside the same
+	 * bands, so the detached block iso cell draws the bands of the first of them over the whole data cell instead.
+	 */
+	private void renderIsoCells(IsoCaseGrid isoCaseGrid, ArrayList<Color> colorScale, ArrayList<ArrayList<IsoCell>> isoCells,
+			IsoCell detachedIsoCell, RefinementMask refinementMask, IsoCell blockIsoCell, int fromRow, int toRow) {
+
+		int isoCellsNumberX = isoCaseGrid.getColumns();
+		boolean blocks = refinementMask != null && blockIsoCell != null;
+		int interpolationFactorX = blocks ? isoCellsNumberX / refinementMask.getColumns() : 1;
+		int interpolationFactorY = blocks ? isoCaseGrid.getRows() / refinementMask.getRows() : 1;
+
+		for (int j = fromRow; j < toRow; j++) {
+
+			for (int k = 0; k < isoCellsNumberX; k++) {
+
+				boolean block = blocks && !refinementMask.isRefined(j / interpolationFactorY, k / interpolationFactorX);
+				if (block && (j % interpolationFactorY != 0 || k % interpolationFactorX != 0)) {
+					continue;
+				}
+
+				int cell = j * isoCellsNumberX + k;
+				int firstCase = isoCaseGrid.getFirstCase(cell);
+				int lastCase = isoCaseGrid.getFirstCase(cell + 1) - 1;
+
+				if (firstCase > lastCase) {
+					continue;
+				}
+
+				IsoCell isoCell;
+				if (block) {
+					isoCell = blockIsoCell;
+					isoCell.setPosition(k / interpolationFactorX, j / interpolationFactorY);
+				} else if (isoCells != null) {
+					isoCell = isoCells.get(j).get(k);
+				} else {
+					isoCell = detachedIsoCell;
+					isoCell.setPosition(k, j);
+				}
+
+				int band = isoCaseGrid.getFirstBand(cell);
+
+				for (int i = firstCase; i <= lastCase; i++, band++) {
+					isoCell.setTernaryIndexOfAverageOfCorners(isoCaseGrid.getTernaryIndexOfAverageOfCorners(i));
+					isoCell.drawIsoBand(isoCaseGrid.getTernaryIndex(i), colorScale.get(band));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the map pixel by pixel into a single image. Value of each pixel is bilinearly sampled from the interpolated data and
+	 * mapped to the last iso band whose start it reaches, which is the band that would be drawn on top by
+	 * {@link #renderIsoCells}.
+	 */
+	private void computeRaster(Frame frame) {
+
+		LOGGER.debug("Rendering raster...");
 
-		LOGGER.debug("Rendering ISO cells...");
+		int width = (int) Math.ceil(frame.sizeX);
+		int height = (int) Math.ceil(frame.sizeY);
 
-		for (int i = 0; i < colorScale.size(); i++) {
+		if (frame.pixels == null || frame.pixels.length != width * height) {
+			frame.pixels = new int[width * height];
+		}
 
-			double startOfRange = isoValues.get(i);
-			double endOfRange = isoValues.get(i + 1);
+		computeRaster(frame, 0, height);
+	}
 
-			for (int j = 0; j < isoCells.size(); j++) {
+	/**
+	 * Writes the given rows of pixels of the raster, which has to be allocated already.
+	 */
+	private void computeRaster(Frame frame, int fromPixelRow, int toPixelRow) {
 
-				ArrayList<IsoCell> isoCellsRow = isoCells.get(j);
+		Grid2D interpolatedData = frame.interpolatedData;
+		boolean doubleData = interpolatedData.getStorage().equals("Double");
+		double sizeX = frame.sizeX;
+		double sizeY = frame.sizeY;
 
-				for (int k = 0; k < isoCellsRow.size(); k++) {
+		int width = (int) Math.ceil(sizeX);
 
-					ArrayList<Integer> ternaryNumber = new ArrayList<>();
+		int lastRow = interpolatedData.getHeight() - 1;
+		int lastColumn = interpolatedData.getWidth() - 1;
 
-					// Bottom left corner of the iso cell.
-					double average = 0;
+		int[] pixels = frame.pixels;
 
-					double decibelThreshold = interpolatedData[j + 1][k];
-					int ternarySingleValue = checkIfValueIsInRange(startOfRange, endOfRange, decibelThreshold);
-					ternaryNumber.add(ternarySingleValue);
-					average += decibelThreshold;
+		// Data of a single row or column has no cells, so the map stays transparent as in the other render modes.
+		if (lastRow < 1 || lastColumn < 1) {
+			Arrays.fill(pixels, fromPixelRow * width, toPixelRow * width, 0);
+			return;
+		}
 
-					// Bottom right corner of the iso cell.
-					decibelThreshold = interpolatedData[j + 1][k + 1];
-					ternarySingleValue = checkIfValueIsInRange(startOfRange, endOfRange, decibelThreshold);
-					ternaryNumber.add(ternarySingleValue);
-					average += decibelThreshold;
+		double[] isoLevels = toArray(frame.isoValues);
+		BitSet validCells = frame.validCells;
+		int[] bandColors = new int[frame.colorScale.size()];
+		for (int i = 0; i < bandColors.length; i++) {
+			bandColors[i] = toArgb(frame.colorScale.get(i));
+		}
 
-					// Top right corner of the iso cell.
-					decibelThreshold = interpolatedData[j][k + 1];
-					ternarySingleValue = checkIfValueIsInRange(startOfRange, endOfRange, decibelThreshold);
-					ternaryNumber.add(ternarySingleValue);
-					average += decibelThreshold;
+		// Column positions are the same for every row of pixels, so compute them once.
+		int[] columns = new int[width];
+		double[] columnFractions = new double[width];
+		for (int x = 0; x < width; x++) {
+			double position = Math.min(lastColumn, (x + 0.5) * lastColumn / sizeX);
+			columns[x] = Math.min(lastColumn - 1, (int) position);
+			columnFractions[x] = position - columns[x];
+		}
 
-					// Top left corner of the iso cell.
-					decibelThreshold = interpolatedData[j][k];
-					ternarySingleValue = checkIfValueIsInRange(startOfRange, endOfRange, decibelThreshold);
-					ternaryNumber.add(ternarySingleValue);
-					average += decibelThreshold;
+		RowStrips.forEach(frame.forkJoinPool, toPixelRow - fromPixelRow, (strip, fromStripRow, toStripRow) -> {
+
+			// Rows of reduced storages are read as doubles into a buffer, and only when the pixels move to the next rows.
+			double[] values = doubleData ? interpolatedData.getValues() : new double[2 * (lastColumn + 1)];
+			int readRow = -1;
+
+			for (int y = fromPixelRow + fromStripRow; y < fromPixelRow + toStripRow; y++) {
+
+				double position = Math.min(lastRow, (y + 0.5) * lastRow / sizeY);
+				int row = Math.min(lastRow - 1, (int) position);
+				double rowFraction = position - row;
+
+				int upperRow;
+				int lowerRow;
+				if (doubleData) {
+					upperRow = interpolatedData.getIndex(row, 0);
+					lowerRow = interpolatedData.getIndex(row + 1, 0);
+				} else {
+					upperRow = 0;
+					lowerRow = lastColumn + 1;
+					if (row != readRow) {
+						interpolatedData.readRow(row, 0, lastColumn + 1, values, upperRow);
+						interpolatedData.readRow(row + 1, 0, lastColumn + 1, values, lowerRow);
+						readRow = row;
+					}
+				}
+
+				int offset = y * width;
 
-					int ternaryIndex = ternaryToDecimalConverter(ternaryNumber);
-					if (ternaryIndex != 0 && ternaryIndex != 80) {
+				for (int x = 0; x < width; x++) {
 
-						int[] saddleIndices = { 10, 11, 19, 20, 23, 30, 33, 47, 50, 57, 60, 61, 69, 70 };
-						boolean contains = IntStream.of(saddleIndices).anyMatch(x -> x == ternaryIndex);
-						if (contains) {
-							average /= 4;
-							int ternaryIndexOfAverageOfCorners = checkIfValueIsInRange(startOfRange, endOfRange, average);
-							isoCellsRow.get(k).setTernaryIndexOfAverageOfCorners(ternaryIndexOfAverageOfCorners);
-							isoCellsRow.get(k).drawIsoBand(ternaryIndex, colorScale.get(i));
-						} else {
-							isoCellsRow.get(k).drawIsoBand(ternaryIndex, colorScale.get(i));
-						}
+					int column = columns[x];
+					double columnFraction = columnFractions[x];
+
+					// Pixels of cells with missing data stay transparent.
+					if (validCells != null && !validCells.get(row * lastColumn + column)) {
+						pixels[offset + x] = 0;
+						continue;
 					}
+
+					int upperLeft = upperRow + column;
+					int lowerLeft = lowerRow + column;
+
+					double upper = values[upperLeft] + (values[upperLeft + 1] - values[upperLeft]) * columnFraction;
+					double lower = values[lowerLeft] + (values[lowerLeft + 1] - values[lowerLeft]) * columnFraction;
+					double value = upper + (lower - upper) * rowFraction;
+
+					pixels[offset + x] = bandColors[IsoCaseGrid.findLastBand(isoLevels, value)];
 				}
 			}
+		});
+	}
+
+	private void renderRaster(Frame frame) {
+
+		int width = (int) Math.ceil(frame.sizeX);
+		int height = (int) Math.ceil(frame.sizeY);
+
+		if (imageView == null || imageView.getImage().getWidth() != width || imageView.getImage().getHeight() != height) {
+			imageView = new ImageView(new WritableImage(width, height));
+			this.getChildren().setAll(imageView);
+		}
+
+		WritableImage writableImage = (WritableImage) imageView.getImage();
+		writableImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), frame.pixels, 0, width);
+	}
+
+	private double[] toArray(ArrayList<Double> values) {
+		double[] array = new double[values.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = values.get(i);
 		}
+		return array;
 	}
 
-	private ArrayList<Double> getIsoValues(double[][] interpolatedData) {
-		double minDataValue;
-		double maxDataValue;
-		minDataValue = findMin(interpolatedData);
-		maxDataValue = findMax(interpolatedData);
+	private int toArgb(Color color) {
+		int alpha = (int) Math.round(color.getOpacity() * 255);
+		int red = (int) Math.round(color.getRed() * 255);
+		int green = (int) Math.round(color.getGreen() * 255);
+		int blue = (int) Math.round(color.getBlue() * 255);
+		return (alpha << 24) | (red << 16) | (green << 8) | blue;
+	}
 
+	/**
+	 * Returns iso levels of the frame from the lowest to the highest value of its data, as stored in its interpolated data.
+	 * Interpolated data holds the data values at the data points and is clamped to their range, so these are also its lowest and
+	 * highest values, and the iso levels are known before the data is interpolated, as adaptive refinement needs them.
+	 */
+	private ArrayList<Double> getIsoValues(Frame frame) {
+		return getIsoValues(frame, frame.interpolatedData.round(frame.dataStatistics.getMinimum()),
+				frame.interpolatedData.round(frame.dataStatistics.getMaximum()));
+	}
+
+	/**
+	 * Returns iso levels of the frame from the lowest to the highest value. "Uniform" levels are spaced by the iso factor.
+	 * "Quantile" levels split the same number of bands at quantiles of the data, taken from its quantile sketch, so every band
+	 * holds about the same number of data values; levels falling together on a frequent value are only kept once.
+	 */
+	private ArrayList<Double> getIsoValues(Frame frame, double minValue, double maxValue) {
+
+		ArrayList<Double> isoValues = getIsoValues(minValue, maxValue, frame.isoFactor);
+		if (!frame.isoLevelMode.equals("Quantile") || isoValues.size() < 3) {
+			return isoValues;
+		}
+
+		int numberOfBands = isoValues.size() - 1;
+		double[] fractions = new double[numberOfBands - 1];
+		for (int i = 0; i < fractions.length; i++) {
+			fractions[i] = (i + 1) / (double) numberOfBands;
+		}
+
+		ArrayList<Double> quantileIsoValues = new ArrayList<>();
+		quantileIsoValues.add(minValue);
+		for (double quantile : frame.dataStatistics.getQuantileSketch().getQuantiles(fractions)) {
+			if (quantile > quantileIsoValues.get(quantileIsoValues.size() - 1) && quantile < maxValue) {
+				quantileIsoValues.add(quantile);
+			}
+		}
+		quantileIsoValues.add(maxValue);
+		return quantileIsoValues;
+	}
+
+	/**
+	 * Returns statistics of the measured values of the data in a single pass, skipping missing values, without a histogram,
+	 * and with a quantile sketch if the frame has quantile iso levels.
+	 */
+	private GridStatistics getDataStatistics(Frame frame, Grid2D data, double noDataValue) {
+		int quantileSketchCapacity = frame.isoLevelMode.equals("Quantile") ? QUANTILE_SKETCH_CAPACITY : 0;
+		GridStatistics.RowFilter rowFilter = Double.isNaN(noDataValue) ? null : (row, fromColumn, values, count) -> {
+			for (int i = 0; i < count; i++) {
+				if (values[i] == noDataValue) {
+					values[i] = Double.NaN;
+				}
+			}
+		};
+		return GridStatistics.of(data, 0, 0, data.getHeight(), data.getWidth(), 0, 0, 0, quantileSketchCapacity, rowFilter,
+				frame.forkJoinPool);
+	}
+
+	/**
+	 * Returns statistics of the given rows and columns of the interpolated data, with the histogram spanning the range of the
+	 * data it was interpolated from. Samples which are not a corner of any valid cell are skipped, unless all cells are valid.
+	 */
+	private GridStatistics getStatistics(Grid2D interpolatedData, BitSet validCells, int fromRow, int fromColumn, int toRow,
+			int toColumn, ForkJoinPool forkJoinPool) {
+		int columns = interpolatedData.getWidth() - 1;
+		int rows = interpolatedData.getHeight() - 1;
+		GridStatistics.RowFilter rowFilter = (validCells != null)
+				? (row, fromRowColumn, values, count) -> skipInvalidSamples(validCells, columns, rows, row, fromRowColumn, values,
+						count)
+				: null;
+		return GridStatistics.of(interpolatedData, fromRow, fromColumn, toRow, toColumn, NUMBER_OF_HISTOGRAM_BINS,
+				interpolatedData.getMinimum(), interpolatedData.getMaximum(), 0, rowFilter, forkJoinPool);
+	}
+
+	/**
+	 * Sets the given number of samples of the row of interpolated data, starting from the column, to NaN unless they are a
+	 * corner of a valid cell. Other samples were interpolated from filled in values and are never drawn, so statistics skip
+	 * them.
+	 */
+	private static void skipInvalidSamples(BitSet validCells, int columns, int rows, int row, int fromColumn, double[] values,
+			int count) {
+		for (int i = 0; i < count; i++) {
+			int column = fromColumn + i;
+			boolean valid = false;
+			for (int cellRow = Math.max(0, row - 1); cellRow <= Math.min(rows - 1, row) && !valid; cellRow++) {
+				for (int cellColumn = Math.max(0, column - 1); cellColumn <= Math.min(columns - 1, column); cellColumn++) {
+					valid |= validCells.get(cellRow * columns + cellColumn);
+				}
+			}
+			if (!valid) {
+				values[i] = Double.NaN;
+			}
+		}
+	}
+
+	private ArrayList<Double> getIsoValues(double minDataValue, double maxDataValue, double isoFactor) {
 		double[] isoValues = arange(minDataValue, maxDataValue, isoFactor);
 		ArrayList<Double> arrayListOfIsoValues = new ArrayList<>();
 
@@ -190,7 +1302,7 @@ public class Contour2DMap extends Pane {
 		return arrayListOfIsoValues;
 	}
 
-	private ArrayList<Color> getColorScale(ArrayList<Double> arrayListOfIsoValues) {
+	private ArrayList<Color> getColorScale(ArrayList<Double> arrayListOfIsoValues, String mapColorScale) {
 		int numberOfColorIntervals = arrayListOfIsoValues.size() - 1;
 		ArrayList<Color> colorScale = new ArrayList<>();
 
@@ -218,9 +1330,23 @@ public class Contour2DMap extends Pane {
 		return colorScale;
 	}
 
-	private ArrayList<ArrayList<IsoCell>> getIsoCells(double[][] interpolatedData) {
-		int isoCellsNumberX = interpolatedData[0].length - 1;
-		int isoCellsNumberY = interpolatedData.length - 1;
+	/**
+	 * Returns matrix of iso cells covering the map. Iso cells of the previous draw are cleared and reused as long as the
+	 * interpolated data has the same dimensions.
+	 */
+	private ArrayList<ArrayList<IsoCell>> getIsoCells(Grid2D interpolatedData) {
+		int isoCellsNumberX = interpolatedData.getWidth() - 1;
+		int isoCellsNumberY = interpolatedData.getHeight() - 1;
+
+		// Dimensions are kept aside, as a matrix of no rows does not tell the number of columns.
+		if (isoCells != null && isoCellsRows == isoCellsNumberY && isoCellsColumns == isoCellsNumberX) {
+			for (ArrayList<IsoCell> isoCellsRow : isoCells) {
+				for (IsoCell isoCell : isoCellsRow) {
+					isoCell.clearIsoBands();
+				}
+			}
+			return isoCells;
+		}
 
 		double isoCellSizeX = sizeX / isoCellsNumberX;
 		double isoCellSizeY = sizeY / isoCellsNumberY;
@@ -229,6 +1355,7 @@ public class Contour2DMap extends Pane {
 		double isoCellPositionY = 0;
 
 		ArrayList<ArrayList<IsoCell>> matrixOfIsoCells = new ArrayList<>();
+		ArrayList<IsoCell> allIsoCells = new ArrayList<>(isoCellsNumberX * isoCellsNumberY);
 
 		for (int i = 0; i < isoCellsNumberY; i++) {
 
@@ -241,7 +1368,7 @@ public class Contour2DMap extends Pane {
 				isoCell.setLayoutX(isoCellPositionX);
 				isoCell.setLayoutY(isoCellPositionY);
 
-				this.getChildren().add(isoCell);
+				allIsoCells.add(isoCell);
 
 				oneRowOfIsoCells.add(isoCell);
 
@@ -252,31 +1379,146 @@ public class Contour2DMap extends Pane {
 			isoCellPositionX = 0;
 			isoCellPositionY += isoCellSizeY;
 		}
+
+		this.getChildren().setAll(allIsoCells);
+
+		isoCells = matrixOfIsoCells;
+		isoCellsColumns = isoCellsNumberX;
+		isoCellsRows = isoCellsNumberY;
 		return matrixOfIsoCells;
 	}
 
-	private double findMin(double[][] matrix) {
-		double min = matrix[0][0];
-		for (double[] element : matrix) {
-			for (int column = 0; column < element.length; column++) {
-				if (min > element[column]) {
-					min = element[column];
-				}
-			}
+	/**
+	 * Returns detached iso cell covering a whole data cell of the interpolated grid, which passes its polygons to the sink, or
+	 * null if there is no refinement mask.
+	 */
+	private IsoCell getBlockIsoCell(double isoCellSizeX, double isoCellSizeY, IsoBandSink isoBandSink,
+			RefinementMask refinementMask, IsoCaseGrid isoCaseGrid) {
+		if (refinementMask == null || refinementMask.getColumns() == 0 || refinementMask.getRows() == 0) {
+			return null;
 		}
-		return min;
+		int interpolationFactorX = isoCaseGrid.getColumns() / refinementMask.getColumns();
+		int interpolationFactorY = isoCaseGrid.getRows() / refinementMask.getRows();
+		return new IsoCell(isoCellSizeX * interpolationFactorX, isoCellSizeY * interpolationFactorY, isoBandSink);
 	}
 
-	private double findMax(double[][] matrix) {
-		double max = matrix[0][0];
-		for (double[] element : matrix) {
-			for (int column = 0; column < element.length; column++) {
-				if (max < element[column]) {
-					max = element[column];
+	/**
+	 * Returns iso cell painting on the single canvas covering the whole map, so the map costs one node regardless of the number
+	 * of iso cells. Canvas of the previous draw is cleared and reused.
+	 */
+	private IsoCell getCanvasIsoCell(Grid2D interpolatedData) {
+		int isoCellsNumberX = interpolatedData.getWidth() - 1;
+		int isoCellsNumberY = interpolatedData.getHeight() - 1;
+
+		double isoCellSizeX = sizeX / isoCellsNumberX;
+		double isoCellSizeY = sizeY / isoCellsNumberY;
+
+		if (canvas == null) {
+			canvas = new Canvas(sizeX, sizeY);
+			this.getChildren().setAll(canvas);
+		}
+		canvas.getGraphicsContext2D().clearRect(0, 0, sizeX, sizeY);
+
+		return new IsoCell(isoCellSizeX, isoCellSizeY, new CanvasIsoBandSink(canvas.getGraphicsContext2D()));
+	}
+
+	/**
+	 * Shows one path per iso band, built from the outlines traced in the lattice coordinates of {@link IsoBandTracer}. Paths and
+	 * their elements of the previous draw are reused; paths which are no longer needed are removed from the map.
+	 */
+	private void renderIsoBandPaths(Grid2D interpolatedData, ArrayList<Color> colorScale,
+			HashMap<Color, ArrayList<int[]>> outlinesOfBands) {
+		int isoCellsNumberX = interpolatedData.getWidth() - 1;
+		int isoCellsNumberY = interpolatedData.getHeight() - 1;
+
+		double scaleX = sizeX / isoCellsNumberX / IsoBandTracer.LATTICE_CELL_SIZE;
+		double scaleY = sizeY / isoCellsNumberY / IsoBandTracer.LATTICE_CELL_SIZE;
+
+		int numberOfBands = 0;
+
+		// Paths are added in the order of the color scale, so higher bands are drawn on top of the lower ones.
+		for (Color color : new LinkedHashSet<>(colorScale)) {
+
+			ArrayList<int[]> outlines = outlinesOfBands.get(color);
+			if (outlines == null) {
+				continue;
+			}
+
+			if (paths.size() <= numberOfBands) {
+				Path path = new Path();
+				path.setStrokeWidth(2);
+				paths.add(path);
+				this.getChildren().add(path);
+			}
+
+			Path path = paths.get(numberOfBands++);
+
+			path.setFill(color);
+			path.setStroke(color);
+
+			ObservableList<PathElement> elements = path.getElements();
+			int numberOfElements = 0;
+
+			for (int[] outline : outlines) {
+				for (int i = 0; i < outline.length; i += 2) {
+					double x = outline[i] * scaleX;
+					double y = outline[i + 1] * scaleY;
+					if (i == 0) {
+						MoveTo moveTo = getPathElement(elements, numberOfElements++, MoveTo.class, MoveTo::new);
+						moveTo.setX(x);
+						moveTo.setY(y);
+					} else {
+						LineTo lineTo = getPathElement(elements, numberOfElements++, LineTo.class, LineTo::new);
+						lineTo.setX(x);
+						lineTo.setY(y);
+					}
 				}
+				getPathElement(elements, numberOfElements++, ClosePath.class, ClosePath::new);
+			}
+
+			if (numberOfElements < elements.size()) {
+				elements.remove(numberOfElements, elements.size());
 			}
 		}
-		return max;
+
+		if (numberOfBands < paths.size()) {
+			this.getChildren().removeAll(paths.subList(numberOfBands, paths.size()));
+			paths.subList(numberOfBands, paths.size()).clear();
+		}
+
+		LOGGER.debug("Rendered {} iso band paths.", numberOfBands);
+	}
+
+	/**
+	 * Returns element at the given index of the path, replacing it with a new element of the given type if the existing one is
+	 * of a different type or there is no such element yet.
+	 */
+	private <T extends PathElement> T getPathElement(ObservableList<PathElement> elements, int index, Class<T> type,
+			Supplier<T> constructor) {
+		if (index < elements.size() && type.isInstance(elements.get(index))) {
+			return type.cast(elements.get(index));
+		}
+
+		T element = constructor.get();
+
+		if (index < elements.size()) {
+			elements.set(index, element);
+		} else {
+			elements.add(element);
+		}
+		return element;
+	}
+
+	/**
+	 * Removes nodes kept from the previous draw, done when the render mode changes.
+	 */
+	private void releaseNodes() {
+		this.getChildren().clear();
+
+		isoCells = null;
+		canvas = null;
+		imageView = null;
+		paths.clear();
 	}
 
 	public double[] arange(double start, double end, double step) {
@@ -299,16 +1541,6 @@ public class Contour2DMap extends Pane {
 		return result;
 	}
 
-	private int checkIfValueIsInRange(double startOfRange, double endOfRange, double value) {
-		if (value < startOfRange) {
-			return 0;
-		} else if (value >= startOfRange && value <= endOfRange) {
-			return 1;
-		} else {
-			return 2;
-		}
-	}
-
 	public int ternaryToDecimalConverter(ArrayList<Integer> ternaryNumber) {
 
 		int decimalValue = 0;
@@ -324,19 +1556,149 @@ public class Contour2DMap extends Pane {
 		return decimalValue;
 	}
 
+	/**
+	 * Returns classification of the iso cells made for the last drawn frame. The grid is reused by the frames drawn after the
+	 * next one, so it should not be kept.
+	 */
+	public IsoCaseGrid getIsoCaseGrid() {
+		return isoCaseGrid;
+	}
+
+	/**
+	 * Returns statistics of the interpolated data of the last drawn map, or null before the first draw. Only samples of cells
+	 * which are drawn are counted, so samples interpolated from filled in missing values are not. Statistics are kept as long
+	 * as the interpolated data is reused, and updated by {@link #updateSamples(int, int, int, int)}.
+	 */
+	public GridStatistics getStatistics() {
+		synchronized (committedFrameLock) {
+			return (committedFrame != null) ? committedFrame.statistics : null;
+		}
+	}
+
+	/**
+	 * Copies the data into a grid of the current grid storage, with the halo needed by the bicubic interpolation.
+	 */
 	public void setData(double[][] data) {
+		setData(Grid2D.of(data, 2, gridStorage));
+	}
+
+	/**
+	 * Sets the grid without copying it, so it should not be modified until the map is drawn. Grids mapped from files with
+	 * {@link Grid2D#map(java.nio.file.Path, int, int)} are read in place, row by row. Setting the grid again, even the same
+	 * one, makes the next draw interpolate it again instead of reusing the interpolated data of the previous draw.
+	 */
+	public void setData(Grid2D data) {
 		this.data = data;
+		this.dataVersion++;
+		cancelLatestFrame(null);
 	}
 
 	public void setIsoFactor(double isoFactor) {
 		this.isoFactor = isoFactor;
 	}
 
+	/**
+	 * Sets the same interpolation factor of both axes and turns off the target of pixels per sample.
+	 */
 	public void setInterpolationFactor(int interpolationFactor) {
-		this.interpolationFactor = interpolationFactor;
+		setInterpolationFactors(interpolationFactor, interpolationFactor);
+	}
+
+	/**
+	 * Sets interpolation factors of the columns (X) and of the rows (Y) of the data separately, and turns off the target of
+	 * pixels per sample.
+	 */
+	public void setInterpolationFactors(int interpolationFactorX, int interpolationFactorY) {
+		this.interpolationFactorX = interpolationFactorX;
+		this.interpolationFactorY = interpolationFactorY;
+		this.targetPixelsPerSample = 0;
+	}
+
+	/**
+	 * Derives interpolation factors of both axes from the size of the map instead, so interpolated samples lie at least the
+	 * given number of pixels apart, as close as whole factors allow, and no more samples are computed than the map can show.
+	 * Factors set later replace the target.
+	 */
+	public void setTargetPixelsPerSample(double targetPixelsPerSample) {
+		this.targetPixelsPerSample = targetPixelsPerSample;
 	}
 
 	public void setMapColorScale(String mapColorScale) {
 		this.mapColorScale = mapColorScale;
 	}
+
+	public void setRenderMode(String renderMode) {
+		this.renderMode = renderMode;
+	}
+
+	/**
+	 * Sets how iso levels are placed between the lowest and the highest value of the map: "Uniform" (default) spaces them by
+	 * the iso factor, and "Quantile" keeps the number of bands given by the iso factor but places the levels at quantiles of
+	 * the data, so every band covers about the same area and skewed data does not leave most bands empty. Quantiles come from
+	 * a sketch of bounded memory collected in the same pass which finds the range of the data.
+	 */
+	public void setIsoLevelMode(String isoLevelMode) {
+		this.isoLevelMode = isoLevelMode;
+	}
+
+	/**
+	 * Sets value which marks missing measurements in the data, in addition to NaN which always does. Data cells with a missing
+	 * corner are neither interpolated, their samples taking the nearest data values instead, nor drawn, so the map shows holes
+	 * there.
+	 */
+	public void setNoDataValue(double noDataValue) {
+		this.noDataValue = noDataValue;
+	}
+
+	/**
+	 * Turns on adaptive refinement, which only interpolates data cells whose interpolated values can cross an iso level at the
+	 * full interpolation factors. Other data cells lie inside the same iso bands everywhere, so they are filled with the nearest
+	 * data values and drawn as single blocks in the "Canvas" and "Paths" render modes.
+	 */
+	public void setAdaptiveRefinement(boolean adaptiveRefinement) {
+		this.adaptiveRefinement = adaptiveRefinement;
+	}
+
+	/**
+	 * Sets interpolation of the data between its samples: "Bicubic" (default), "Bilinear" or "Nearest". Bilinear and nearest
+	 * interpolation are cheaper and never leave the range of the data, so the upsampled grid is not clamped, while bicubic gives
+	 * the smoothest iso bands.
+	 */
+	public void setInterpolation(String interpolation) {
+		switch (interpolation) {
+			case "Bilinear":
+				interpolator = new BilinearInterpolator();
+				break;
+			case "Nearest":
+				interpolator = new NearestInterpolator();
+				break;
+			default:
+				interpolator = new BicubicInterpolator();
+				break;
+		}
+	}
+
+	/**
+	 * Sets own interpolation of the data, which is shared by the threads computing the map.
+	 */
+	public void setInterpolator(Interpolator interpolator) {
+		this.interpolator = interpolator;
+	}
+
+	/**
+	 * Sets storage of the interpolated grids and of the data passed later to {@link #setData(double[][])}: "Double" (default),
+	 * "Float" or "Short", see {@link Grid2D}. Reduced storages use less memory at the cost of precision, "Short" stores 65535
+	 * levels between the lowest and the highest value of the data.
+	 */
+	public void setGridStorage(String gridStorage) {
+		this.gridStorage = gridStorage;
+	}
+
+	/**
+	 * Sets pool on which strips of rows are interpolated, classified and turned into geometry, or null (default) to do all the
+	 * work on the thread calling {@link #draw()}. Either way the map looks the same.
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
 }
@@ -37,6 +37,13 @@ public class CubicInterpolator {
         double p2 = p[Math.min(p.length - 1, xi + 1)];
         double p3 = p[Math.min(p.length - 1, xi + 2)];
 
+        return getValue(p0, p1, p2, p3, x);
+    }
+
+    /**
+     * Catmull-Rom interpolation between p1 and p2 at the fraction x of the distance between them.
+     */
+    public static double getValue(double p0, double p1, double p2, double p3, double x) {
         return p1 + 0.5 * x * (p2 - p0 + x * (2.0 * p0 - 5.0 * p1 + 4.0 * p2 - p3 + x * (3.0 * (p1 - p2) + p3 - p0)));
     }
 }
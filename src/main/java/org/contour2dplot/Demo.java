@@ -53,6 +53,7 @@ public class Demo extends Application {
 
 		double[][] data = loadData(new File("RandomData.txt"));
 		contour2DMap.setData(data);
+		contour2DMap.setNoDataValue(-1);
 		contour2DMap.setIsoFactor(0.1);
 		contour2DMap.setInterpolationFactor(3);
 		contour2DMap.setMapColorScale("Color");
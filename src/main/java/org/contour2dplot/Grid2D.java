@@ -0,0 +1,651 @@
+package org.contour2dplot;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Grid of values stored row by row in a single array. Rows can be surrounded by a halo of cells repeating the nearest edge value,
+ * so interpolation stencils reaching past the edges read the clamped values straight from the array, without clamping indices.
+ * <p>
+ * Value of the given row and column, where 0 is the first row and column inside the halo, is stored at
+ * {@link #getIndex(int, int)}, and subsequent values of a row are stored at subsequent indices.
+ * <p>
+ * Values are stored with one of the following storages:
+ * <ul>
+ * <li>"Double" - in a double[], returned by {@link #getValues()},</li>
+ * <li>"Float" - in a float[], returned by {@link #getFloatValues()}, using half of the memory,</li>
+ * <li>"Short" - in a short[], returned by {@link #getShortValues()}, using a quarter of the memory. Values between the minimum
+ * and the maximum given to the constructor are quantized into codes from -32767 to 32767, where the code c stands for the value
+ * offset + c * scale, and the code -32768 stands for NaN.</li>
+ * <li>"Mapped" - in a file of doubles mapped into memory by {@link #map(Path, long, int, int, ByteOrder)}, read in place without
+ * copying the grid onto the heap. Such grids are read-only and have no halo.</li>
+ * <li>"Filled" - not stored at all, but computed from another grid whenever read, as returned by
+ * {@link #withMissingValuesFilled(double, int)}. Such grids are read-only and have no halo.</li>
+ * </ul>
+ * Rows of any storage can be read as doubles with {@link #readRow(int, int, int, double[], int)} and rows of any storage but
+ * "Mapped" and "Filled" can be written with {@link #writeRow(int, double[], int)}.
+ */
+public final class Grid2D {
+
+	public static final short NAN_CODE = Short.MIN_VALUE;
+
+	private static final int MAX_CODE = Short.MAX_VALUE;
+
+	// A single mapping of a file can not exceed 2 GB, so mapped grids are split into chunks of whole rows.
+	private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+
+	// Values held in memory, including the halo, are indexed by int and some virtual machines reserve a few words of an array.
+	private static final long MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+	private final int width;
+	private final int height;
+	private final int halo;
+	private final int stride;
+	private final String storage;
+
+	private double[] values;
+	private float[] floatValues;
+	private short[] shortValues;
+	private DoubleBuffer[] mappedChunks;
+	private int rowsPerChunk;
+	private Grid2D unfilledGrid;
+	private double missingValue;
+	private int fillingRounds;
+
+	private final double minimum;
+	private final double maximum;
+	private final double scale;
+	private final double offset;
+
+	public Grid2D(int width, int height) {
+		this(width, height, 0);
+	}
+
+	public Grid2D(int width, int height, int halo) {
+		this(width, height, halo, "Double", 0, 0);
+	}
+
+	/**
+	 * Creates grid with the given storage. Minimum and maximum give the range of values quantized by the "Short" storage, and
+	 * are ignored by other storages.
+	 */
+	public Grid2D(int width, int height, int halo, String storage, double minimum, double maximum) {
+		this.width = width;
+		this.height = height;
+		this.halo = halo;
+		this.stride = width + 2 * halo;
+		this.storage = storage;
+		this.minimum = minimum;
+		this.maximum = maximum;
+
+		// Size is computed in long, since the product of the dimensions of large grids overflows int.
+		long length = ((long) width + 2L * halo) * ((long) height + 2L * halo);
+		if (length > MAX_LENGTH && !storage.equals("Mapped") && !storage.equals("Filled")) {
+			throw new IllegalArgumentException("Grid of " + width + " x " + height + " values with a halo of " + halo
+					+ " is too large for the " + storage + " storage, which holds at most " + MAX_LENGTH + " values.");
+		}
+
+		switch (storage) {
+			case "Double":
+				values = new double[(int) length];
+				break;
+			case "Float":
+				floatValues = new float[(int) length];
+				break;
+			case "Short":
+				shortValues = new short[(int) length];
+				break;
+			case "Mapped":
+			case "Filled":
+				if (halo != 0) {
+					throw new IllegalArgumentException(storage + " grids have no halo.");
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown grid storage: " + storage);
+		}
+
+		this.offset = (minimum + maximum) / 2;
+		this.scale = (maximum > minimum) ? (maximum - minimum) / (2.0 * MAX_CODE) : 1;
+	}
+
+	/**
+	 * Maps the file with values of the grid, stored row by row as 8-byte doubles of the given byte order from the given position,
+	 * for example as written by numpy.ndarray.tofile(). The file is only read when values are, so it may be much larger than
+	 * the heap.
+	 */
+	public static Grid2D map(Path file, long position, int width, int height, ByteOrder byteOrder) throws IOException {
+
+		Grid2D grid = new Grid2D(width, height, 0, "Mapped", 0, 0);
+
+		long rowSize = (long) width * Double.BYTES;
+		grid.rowsPerChunk = (int) Math.max(1, Math.min(height, MAX_CHUNK_SIZE / rowSize));
+		grid.mappedChunks = new DoubleBuffer[(height + grid.rowsPerChunk - 1) / grid.rowsPerChunk];
+
+		// Mappings stay valid after the channel is closed.
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			for (int chunk = 0; chunk < grid.mappedChunks.length; chunk++) {
+				int fromRow = chunk * grid.rowsPerChunk;
+				int rows = Math.min(grid.rowsPerChunk, height - fromRow);
+				grid.mappedChunks[chunk] = channel
+						.map(FileChannel.MapMode.READ_ONLY, position + fromRow * rowSize, rows * rowSize)
+						.order(byteOrder).asDoubleBuffer();
+			}
+		}
+
+		return grid;
+	}
+
+	/**
+	 * Maps the file of doubles of the native byte order, stored row by row from the beginning of the file.
+	 */
+	public static Grid2D map(Path file, int width, int height) throws IOException {
+		return map(file, 0, width, height, ByteOrder.nativeOrder());
+	}
+
+	public static Grid2D of(double[][] data) {
+		return of(data, 0);
+	}
+
+	/**
+	 * Copies rows of the data into a new grid with the given halo, filled with the edge values.
+	 */
+	public static Grid2D of(double[][] data, int halo) {
+		return of(data, halo, "Double");
+	}
+
+	/**
+	 * Copies rows of the data into a new grid with the given halo and storage. Values are quantized between the lowest and the
+	 * highest finite value of the data.
+	 */
+	public static Grid2D of(double[][] data, int halo, String storage) {
+
+		double minimum = Double.POSITIVE_INFINITY;
+		double maximum = Double.NEGATIVE_INFINITY;
+		if (storage.equals("Short")) {
+			for (double[] row : data) {
+				for (double value : row) {
+					if (Double.isFinite(value)) {
+						minimum = Math.min(minimum, value);
+						maximum = Math.max(maximum, value);
+					}
+				}
+			}
+		}
+		if (minimum > maximum) {
+			minimum = 0;
+			maximum = 0;
+		}
+
+		Grid2D grid = new Grid2D(data[0].length, data.length, halo, storage, minimum, maximum);
+		for (int row = 0; row < grid.height; row++) {
+			grid.writeRow(row, data[row], 0);
+		}
+		grid.fillHalo();
+		return grid;
+	}
+
+	/**
+	 * Returns read-only view of the grid in which values that are NaN or equal to the missing value are filled in the given
+	 * number of rounds like by {@link #fillMissingValues(int)}. A row is filled whenever it is read, from the rows of the grid
+	 * within the number of rounds from it, so the grid is never copied as a whole, which suits grids mapped from files.
+	 */
+	public Grid2D withMissingValuesFilled(double missingValue, int rounds) {
+		Grid2D grid = new Grid2D(width, height, 0, "Filled", 0, 0);
+		grid.unfilledGrid = this;
+		grid.missingValue = missingValue;
+		grid.fillingRounds = rounds;
+		return grid;
+	}
+
+	/**
+	 * Replaces NaN values by the average of their neighbours which are not NaN, in the given number of rounds, so missing
+	 * values up to that far from a value are filled. Every round only averages values filled by the previous rounds, and values
+	 * without any such neighbour stay NaN. Rows are filled in place, keeping the previous values of the rows around the filled
+	 * one in a rolling buffer of three rows.
+	 */
+	public void fillMissingValues(int rounds) {
+
+		double[][] previousRows = new double[3][width];
+		double[] filledRow = new double[width];
+
+		for (int round = 0; round < rounds; round++) {
+
+			readRow(0, 0, width, previousRows[0], 0);
+
+			for (int row = 0; row < height; row++) {
+
+				double[] above = (row > 0) ? previousRows[(row - 1) % 3] : null;
+				double[] current = previousRows[row % 3];
+				double[] below = null;
+				if (row + 1 < height) {
+					below = previousRows[(row + 1) % 3];
+					readRow(row + 1, 0, width, below, 0);
+				}
+
+				if (fillRow(above, current, below, 0, width, filledRow)) {
+					writeRow(row, filledRow, 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets every halo cell to the value of the nearest cell inside the grid. Has to be called after changing values lying on
+	 * the edges of the grid.
+	 */
+	public void fillHalo() {
+
+		if (halo == 0) {
+			return;
+		}
+
+		Object array = getArray();
+
+		for (int row = 0; row < height; row++) {
+			int first = getIndex(row, 0);
+			int last = getIndex(row, width - 1);
+			for (int i = 1; i <= halo; i++) {
+				System.arraycopy(array, first, array, first - i, 1);
+				System.arraycopy(array, last, array, last + i, 1);
+			}
+		}
+
+		for (int i = 1; i <= halo; i++) {
+			System.arraycopy(array, getIndex(0, -halo), array, getIndex(-i, -halo), stride);
+			System.arraycopy(array, getIndex(height - 1, -halo), array, getIndex(height - 1 + i, -halo), stride);
+		}
+	}
+
+	/**
+	 * Reads the given number of values of the row, starting from the given column, into the buffer as doubles.
+	 */
+	public void readRow(int row, int fromColumn, int count, double[] buffer, int bufferOffset) {
+
+		if (storage.equals("Mapped")) {
+			mappedChunks[row / rowsPerChunk].get((row % rowsPerChunk) * width + fromColumn, buffer, bufferOffset, count);
+			return;
+		}
+
+		if (storage.equals("Filled")) {
+			readFilledRow(row, fromColumn, count, buffer, bufferOffset);
+			return;
+		}
+
+		int index = getIndex(row, fromColumn);
+
+		switch (storage) {
+			case "Double":
+				System.arraycopy(values, index, buffer, bufferOffset, count);
+				break;
+			case "Float":
+				for (int i = 0; i < count; i++) {
+					buffer[bufferOffset + i] = floatValues[index + i];
+				}
+				break;
+			default:
+				for (int i = 0; i < count; i++) {
+					buffer[bufferOffset + i] = decode(shortValues[index + i]);
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Writes the whole row, without the halo, from the buffer, converting values to the storage of the grid.
+	 */
+	public void writeRow(int row, double[] buffer, int bufferOffset) {
+
+		checkWritable();
+
+		int index = getIndex(row, 0);
+
+		switch (storage) {
+			case "Double":
+				System.arraycopy(buffer, bufferOffset, values, index, width);
+				break;
+			case "Float":
+				for (int i = 0; i < width; i++) {
+					floatValues[index + i] = (float) buffer[bufferOffset + i];
+				}
+				break;
+			default:
+				for (int i = 0; i < width; i++) {
+					shortValues[index + i] = encode(buffer[bufferOffset + i]);
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Clamps values of the given rows to the range from min to max. Ranges of the codes of the "Short" storage are clamped, so
+	 * stored values are the same as if doubles were clamped before quantization.
+	 */
+	public void clamp(double min, double max, int fromRow, int toRow) {
+
+		checkWritable();
+
+		switch (storage) {
+			case "Double":
+				for (int row = fromRow; row < toRow; row++) {
+					int index = getIndex(row, 0);
+					for (int i = index; i < index + width; i++) {
+						if (values[i] < min) {
+							values[i] = min;
+						} else if (values[i] > max) {
+							values[i] = max;
+						}
+					}
+				}
+				break;
+			case "Float":
+				float floatMin = (float) min;
+				float floatMax = (float) max;
+				for (int row = fromRow; row < toRow; row++) {
+					int index = getIndex(row, 0);
+					for (int i = index; i < index + width; i++) {
+						if (floatValues[i] < floatMin) {
+							floatValues[i] = floatMin;
+						} else if (floatValues[i] > floatMax) {
+							floatValues[i] = floatMax;
+						}
+					}
+				}
+				break;
+			default:
+				short minCode = encode(min);
+				short maxCode = encode(max);
+				for (int row = fromRow; row < toRow; row++) {
+					int index = getIndex(row, 0);
+					for (int i = index; i < index + width; i++) {
+						if (shortValues[i] == NAN_CODE) {
+							continue;
+						}
+						if (shortValues[i] < minCode) {
+							shortValues[i] = minCode;
+						} else if (shortValues[i] > maxCode) {
+							shortValues[i] = maxCode;
+						}
+					}
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Returns the nearest code of the "Short" storage, saturated at the lowest and the highest code.
+	 */
+	public short encode(double value) {
+		if (Double.isNaN(value)) {
+			return NAN_CODE;
+		}
+		return (short) Math.max(-MAX_CODE, Math.min(MAX_CODE, Math.round((value - offset) / scale)));
+	}
+
+	public double decode(int code) {
+		if (code == NAN_CODE) {
+			return Double.NaN;
+		}
+		return offset + code * scale;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getHalo() {
+		return halo;
+	}
+
+	/**
+	 * Returns distance between indices of subsequent rows.
+	 */
+	public int getStride() {
+		return stride;
+	}
+
+	public String getStorage() {
+		return storage;
+	}
+
+	public double getMinimum() {
+		return minimum;
+	}
+
+	public double getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * Returns the value as it is read back after setting it to the grid.
+	 */
+	public double round(double value) {
+		switch (storage) {
+			case "Float":
+				return (float) value;
+			case "Short":
+				return decode(encode(value));
+			default:
+				return value;
+		}
+	}
+
+	/**
+	 * Returns the largest difference between a value between the minimum and the maximum set to the grid and the value read
+	 * back, which is 0 for the "Double" storage.
+	 */
+	public double getRoundingError() {
+		switch (storage) {
+			case "Float":
+				return Math.ulp((float) Math.max(Math.abs(minimum), Math.abs(maximum)));
+			case "Short":
+				return scale;
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Returns the array backing the grid of the "Double" storage, including the halo, or null for other storages.
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	public float[] getFloatValues() {
+		return floatValues;
+	}
+
+	public short[] getShortValues() {
+		return shortValues;
+	}
+
+	/**
+	 * Returns index of the value in the backing array. Rows and columns from -halo up to height - 1 + halo and width - 1 + halo
+	 * are allowed.
+	 */
+	public int getIndex(int row, int column) {
+		return (row + halo) * stride + column + halo;
+	}
+
+	public double get(int row, int column) {
+
+		if (storage.equals("Filled")) {
+			double value = unfilledGrid.get(row, column);
+			if (!Double.isNaN(value) && value != missingValue) {
+				return value;
+			}
+			double[] filledValue = new double[1];
+			readFilledRow(row, column, 1, filledValue, 0);
+			return filledValue[0];
+		}
+
+		int index = getIndex(row, column);
+		switch (storage) {
+			case "Double":
+				return values[index];
+			case "Float":
+				return floatValues[index];
+			case "Short":
+				return decode(shortValues[index]);
+			default:
+				return mappedChunks[row / rowsPerChunk].get((row % rowsPerChunk) * width + column);
+		}
+	}
+
+	public void set(int row, int column, double value) {
+		checkWritable();
+		int index = getIndex(row, column);
+		switch (storage) {
+			case "Double":
+				values[index] = value;
+				break;
+			case "Float":
+				floatValues[index] = (float) value;
+				break;
+			default:
+				shortValues[index] = encode(value);
+				break;
+		}
+	}
+
+	public double[][] toArray() {
+		double[][] array = new double[height][width];
+		for (int row = 0; row < height; row++) {
+			readRow(row, 0, width, array[row], 0);
+		}
+		return array;
+	}
+
+	private void checkWritable() {
+		if (storage.equals("Mapped") || storage.equals("Filled")) {
+			throw new UnsupportedOperationException(storage + " grids are read-only.");
+		}
+	}
+
+	/**
+	 * Reads values of the row of the grid returned by {@link #withMissingValuesFilled(double, int)}. Values reached by the
+	 * filling are read from the unfilled grid into a window of rows and columns, which is then filled round by round, each
+	 * round over one row and column fewer on every side.
+	 */
+	private void readFilledRow(int row, int fromColumn, int count, double[] buffer, int bufferOffset) {
+
+		int rounds = fillingRounds;
+
+		int fromWindowRow = Math.max(0, row - rounds);
+		int toWindowRow = Math.min(height, row + rounds + 1);
+		int fromWindowColumn = Math.max(0, fromColumn - rounds);
+		int windowWidth = Math.min(width, fromColumn + count + rounds) - fromWindowColumn;
+
+		double[][] window = new double[toWindowRow - fromWindowRow][windowWidth];
+		for (int i = 0; i < window.length; i++) {
+			unfilledGrid.readRow(fromWindowRow + i, fromWindowColumn, windowWidth, window[i], 0);
+			for (int j = 0; j < windowWidth; j++) {
+				if (window[i][j] == missingValue) {
+					window[i][j] = Double.NaN;
+				}
+			}
+		}
+
+		for (int round = 1; round <= rounds; round++) {
+
+			// Rows and columns still needed by the next rounds, whose neighbours all lie in the window or outside of the grid.
+			int reach = rounds - round;
+			int fromRow = Math.max(0, row - reach) - fromWindowRow;
+			int toRow = Math.min(height, row + reach + 1) - fromWindowRow;
+			int fromFilledColumn = Math.max(0, fromColumn - reach) - fromWindowColumn;
+			int toFilledColumn = Math.min(width, fromColumn + count + reach) - fromWindowColumn;
+
+			double[][] filledWindow = new double[window.length][];
+			for (int i = fromRow; i < toRow; i++) {
+				filledWindow[i] = window[i].clone();
+				fillRow((i > 0) ? window[i - 1] : null, window[i], (i + 1 < window.length) ? window[i + 1] : null,
+						fromFilledColumn, toFilledColumn, filledWindow[i]);
+			}
+			window = filledWindow;
+		}
+
+		System.arraycopy(window[row - fromWindowRow], fromColumn - fromWindowColumn, buffer, bufferOffset, count);
+	}
+
+	/**
+	 * Writes the values of the row from the given column up to the other one into the filled row, with NaN values replaced by
+	 * the average of their neighbours in the row and in the rows above and below, unless these are null, which are not NaN.
+	 * Returns whether any value was NaN.
+	 */
+	private static boolean fillRow(double[] above, double[] row, double[] below, int fromColumn, int toColumn,
+			double[] filledRow) {
+
+		boolean anyMissing = false;
+
+		for (int column = fromColumn; column < toColumn; column++) {
+
+			double value = row[column];
+
+			if (Double.isNaN(value)) {
+
+				anyMissing = true;
+
+				double sum = 0;
+				int numberOfNeighbours = 0;
+
+				int fromNeighbour = Math.max(0, column - 1);
+				int toNeighbour = Math.min(row.length - 1, column + 1);
+
+				for (double[] neighbours : new double[][] { above, row, below }) {
+					if (neighbours == null) {
+						continue;
+					}
+					for (int neighbour = fromNeighbour; neighbour <= toNeighbour; neighbour++) {
+						if (!Double.isNaN(neighbours[neighbour])) {
+							sum += neighbours[neighbour];
+							numberOfNeighbours++;
+						}
+					}
+				}
+
+				if (numberOfNeighbours > 0) {
+					value = sum / numberOfNeighbours;
+				}
+			}
+
+			filledRow[column] = value;
+		}
+
+		return anyMissing;
+	}
+
+	private Object getArray() {
+		switch (storage) {
+			case "Double":
+				return values;
+			case "Float":
+				return floatValues;
+			default:
+				return shortValues;
+		}
+	}
+}
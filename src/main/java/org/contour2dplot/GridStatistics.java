@@ -0,0 +1,241 @@
+package org.contour2dplot;
+
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Statistics of the values of a grid, skipping NaN: the lowest and the highest value, the mean, the number of values and a
+ * histogram counting values in bins of equal width between the lowest and the highest value given to the constructor. Values
+ * outside of that range are counted in the first or the last bin. Optionally, values are also added to a
+ * {@link QuantileSketch}.
+ * <p>
+ * Statistics are collected a row at a time, so they can be computed in the same pass which writes or clamps the rows, and
+ * statistics of strips of rows collected in parallel are merged afterwards. Sums, counts and the histogram of rows can also be
+ * subtracted again, for example before the rows are changed, but the lowest and the highest value can only grow and statistics
+ * with a quantile sketch can not be subtracted from.
+ */
+public final class GridStatistics {
+
+	private final double lowestBinStart;
+	private final double highestBinEnd;
+	private final long[] histogram;
+	private final QuantileSketch quantileSketch;
+
+	/**
+	 * Excludes values of a row read by {@link GridStatistics#of} from the statistics by setting them to NaN.
+	 */
+	public interface RowFilter {
+
+		void apply(int row, int fromColumn, double[] values, int count);
+	}
+
+	private double minimum = Double.NaN;
+	private double maximum = Double.NaN;
+	private double sum;
+	private long count;
+
+	/**
+	 * Creates empty statistics with the given number of bins between the lowest and the highest value, or without a histogram if
+	 * the number of bins is 0.
+	 */
+	public GridStatistics(int numberOfBins, double lowestBinStart, double highestBinEnd) {
+		this(numberOfBins, lowestBinStart, highestBinEnd, 0);
+	}
+
+	/**
+	 * Creates empty statistics like {@link #GridStatistics(int, double, double)}, which also add values to a quantile sketch of
+	 * the given capacity, unless it is 0.
+	 */
+	public GridStatistics(int numberOfBins, double lowestBinStart, double highestBinEnd, int quantileSketchCapacity) {
+		this.lowestBinStart = lowestBinStart;
+		this.highestBinEnd = highestBinEnd;
+		this.histogram = new long[numberOfBins];
+		this.quantileSketch = (quantileSketchCapacity > 0) ? new QuantileSketch(quantileSketchCapacity) : null;
+	}
+
+	/**
+	 * Collects statistics of the whole grid.
+	 */
+	public static GridStatistics of(Grid2D grid, int numberOfBins, double lowestBinStart, double highestBinEnd,
+			ForkJoinPool forkJoinPool) {
+		return of(grid, 0, 0, grid.getHeight(), grid.getWidth(), numberOfBins, lowestBinStart, highestBinEnd, 0, null,
+				forkJoinPool);
+	}
+
+	/**
+	 * Collects statistics of the given rows and columns of the grid, in strips of rows computed on the given pool, or serially
+	 * if the pool is null, including a quantile sketch of the given capacity unless it is 0. Every row read is passed through
+	 * the row filter first, unless it is null.
+	 */
+	public static GridStatistics of(Grid2D grid, int fromRow, int fromColumn, int toRow, int toColumn, int numberOfBins,
+			double lowestBinStart, double highestBinEnd, int quantileSketchCapacity, RowFilter rowFilter,
+			ForkJoinPool forkJoinPool) {
+
+		GridStatistics[] statisticsOfStrips = new GridStatistics[RowStrips.getNumberOfStrips(forkJoinPool, toRow - fromRow)];
+
+		RowStrips.forEach(forkJoinPool, toRow - fromRow, (strip, fromStripRow, toStripRow) -> {
+			GridStatistics statisticsOfStrip = new GridStatistics(numberOfBins, lowestBinStart, highestBinEnd,
+					quantileSketchCapacity);
+			double[] values = new double[toColumn - fromColumn];
+			for (int row = fromRow + fromStripRow; row < fromRow + toStripRow; row++) {
+				grid.readRow(row, fromColumn, values.length, values, 0);
+				if (rowFilter != null) {
+					rowFilter.apply(row, fromColumn, values, values.length);
+				}
+				statisticsOfStrip.add(values, 0, values.length);
+			}
+			statisticsOfStrips[strip] = statisticsOfStrip;
+		});
+
+		return merge(statisticsOfStrips);
+	}
+
+	/**
+	 * Merges statistics of strips in their order into the statistics of the first strip, which are returned.
+	 */
+	public static GridStatistics merge(GridStatistics[] statisticsOfStrips) {
+		for (int i = 1; i < statisticsOfStrips.length; i++) {
+			statisticsOfStrips[0].add(statisticsOfStrips[i]);
+		}
+		return statisticsOfStrips[0];
+	}
+
+	/**
+	 * Adds the given number of values of the array, starting at the offset.
+	 */
+	public void add(double[] values, int offset, int length) {
+
+		double binsPerValue = histogram.length / (highestBinEnd - lowestBinStart);
+		int lastBin = histogram.length - 1;
+
+		for (int i = offset; i < offset + length; i++) {
+
+			double value = values[i];
+			if (Double.isNaN(value)) {
+				continue;
+			}
+
+			if (minimum > value || Double.isNaN(minimum)) {
+				minimum = value;
+			}
+			if (maximum < value || Double.isNaN(maximum)) {
+				maximum = value;
+			}
+			sum += value;
+			count++;
+
+			if (lastBin >= 0) {
+				// Casting saturates, and NaN of an empty range of bins counts the value in the first bin.
+				histogram[Math.max(0, Math.min(lastBin, (int) ((value - lowestBinStart) * binsPerValue)))]++;
+			}
+
+			if (quantileSketch != null) {
+				quantileSketch.add(value);
+			}
+		}
+	}
+
+	/**
+	 * Adds values counted by other statistics with the same bins, and the same quantile sketch capacity.
+	 */
+	public void add(GridStatistics statistics) {
+		if (minimum > statistics.minimum || Double.isNaN(minimum)) {
+			minimum = statistics.minimum;
+		}
+		if (maximum < statistics.maximum || Double.isNaN(maximum)) {
+			maximum = statistics.maximum;
+		}
+		sum += statistics.sum;
+		count += statistics.count;
+		for (int bin = 0; bin < histogram.length; bin++) {
+			histogram[bin] += statistics.histogram[bin];
+		}
+		if (quantileSketch != null) {
+			quantileSketch.add(statistics.quantileSketch);
+		}
+	}
+
+	/**
+	 * Subtracts sums, counts and the histogram of values added before and counted by other statistics with the same bins. The
+	 * lowest and the highest value are kept.
+	 */
+	public void subtract(GridStatistics statistics) {
+		if (quantileSketch != null) {
+			throw new UnsupportedOperationException("Quantile sketches can not be subtracted from.");
+		}
+		sum -= statistics.sum;
+		count -= statistics.count;
+		for (int bin = 0; bin < histogram.length; bin++) {
+			histogram[bin] -= statistics.histogram[bin];
+		}
+	}
+
+	/**
+	 * Returns the lowest value, or NaN if there is no value.
+	 */
+	public double getMinimum() {
+		return minimum;
+	}
+
+	/**
+	 * Returns the highest value, or NaN if there is no value.
+	 */
+	public double getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * Returns the mean of the values, or NaN if there is no value.
+	 */
+	public double getMean() {
+		return (count > 0) ? sum / count : Double.NaN;
+	}
+
+	/**
+	 * Returns the number of values which are not NaN.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	public int getNumberOfBins() {
+		return histogram.length;
+	}
+
+	public double getLowestBinStart() {
+		return lowestBinStart;
+	}
+
+	public double getHighestBinEnd() {
+		return highestBinEnd;
+	}
+
+	public double getBinStart(int bin) {
+		return lowestBinStart + bin * (highestBinEnd - lowestBinStart) / histogram.length;
+	}
+
+	public long getBinCount(int bin) {
+		return histogram[bin];
+	}
+
+	/**
+	 * Returns the quantile sketch of the values, or null if the statistics were created without one.
+	 */
+	public QuantileSketch getQuantileSketch() {
+		return quantileSketch;
+	}
+}
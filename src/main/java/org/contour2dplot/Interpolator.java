@@ -0,0 +1,92 @@
+package org.contour2dplot;
+
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Interpolates values of a grid between its samples. Implementations keep no mutable state, so a single instance can be shared by
+ * any number of threads interpolating different grids, or different strips of the same grid, at the same time.
+ */
+public interface Interpolator {
+
+	/**
+	 * Returns value of the data at the fractional row x and column y, which lie between 0 and the last row and column.
+	 */
+	double getValue(Grid2D data, double x, double y);
+
+	/**
+	 * Tells whether interpolated values may leave the range of the data, so the upsampled grid has to be clamped to it.
+	 */
+	default boolean overshoots() {
+		return false;
+	}
+
+	/**
+	 * Stores the lowest and the highest value the interpolation can take inside the data cell of the given top-left row and
+	 * column into the first two elements of the range. The default suits interpolations which never leave the range of the
+	 * four corners of the cell; the range is NaN if any of them is NaN.
+	 */
+	default void getCellRange(Grid2D data, int row, int column, double[] range) {
+		double topLeft = data.get(row, column);
+		double topRight = data.get(row, column + 1);
+		double bottomLeft = data.get(row + 1, column);
+		double bottomRight = data.get(row + 1, column + 1);
+		range[0] = Math.min(Math.min(topLeft, topRight), Math.min(bottomLeft, bottomRight));
+		range[1] = Math.max(Math.max(topLeft, topRight), Math.max(bottomLeft, bottomRight));
+	}
+
+	/**
+	 * Fills the caller-owned grid with samples of the data taken at every 1 / interpolationFactorX of its columns and
+	 * 1 / interpolationFactorY of its rows. Rows are split into strips computed on the given pool, or serially if the pool is
+	 * null.
+	 */
+	default void upsample(Grid2D data, int interpolationFactorX, int interpolationFactorY, Grid2D upsampledData,
+			ForkJoinPool forkJoinPool) {
+		upsample(data, interpolationFactorX, interpolationFactorY, upsampledData, null, forkJoinPool);
+	}
+
+	/**
+	 * Fills the grid like {@link #upsample(Grid2D, int, int, Grid2D, ForkJoinPool)}, but only interpolates samples touching
+	 * cells marked in the refinement mask, or all samples if the mask is null. Other samples take the value of the nearest
+	 * data sample, rounding halves up.
+	 */
+	default void upsample(Grid2D data, int interpolationFactorX, int interpolationFactorY, Grid2D upsampledData,
+			RefinementMask refinementMask, ForkJoinPool forkJoinPool) {
+		RowStrips.forEach(forkJoinPool, upsampledData.getHeight(), (strip, fromRow, toRow) -> {
+			for (int row = fromRow; row < toRow; row++) {
+				double x = row * (1.0 / interpolationFactorY);
+				for (int column = 0; column < upsampledData.getWidth(); column++) {
+					if (refinementMask == null
+							|| refinementMask.isRefinedSample(row, column, interpolationFactorX, interpolationFactorY)) {
+						upsampledData.set(row, column, getValue(data, x, column * (1.0 / interpolationFactorX)));
+					} else {
+						upsampledData.set(row, column, data.get(getNearest(row, interpolationFactorY),
+								getNearest(column, interpolationFactorX)));
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns index of the data value nearest to the sample taken at every 1 / interpolationFactor of the data, with halves
+	 * rounded up.
+	 */
+	static int getNearest(int sample, int interpolationFactor) {
+		return (2 * sample + interpolationFactor) / (2 * interpolationFactor);
+	}
+}
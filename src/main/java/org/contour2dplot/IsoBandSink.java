@@ -0,0 +1,30 @@
+package org.contour2dplot;
+
+import javafx.scene.paint.Color;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Receives polygons of iso bands produced by {@link IsoCell} which is not a part of the scene graph.
+ */
+public interface IsoBandSink {
+
+	/**
+	 * Coordinates are stored in the points array as x and y pairs, already moved by the origin of the iso cell. Only the first
+	 * numberOfPoints pairs are valid and the array is reused by the caller, so it must not be kept.
+	 */
+	void addPolygon(double[] points, int numberOfPoints, Color color);
+}
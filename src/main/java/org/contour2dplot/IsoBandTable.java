@@ -0,0 +1,268 @@
+package org.contour2dplot;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Geometry of iso band polygons for all 81 ternary indices of the iso cell, based on:
+ * https://en.wikipedia.org/wiki/Marching_squares#Isoband.
+ * <p>
+ * Ternary index is built from the states of the bottom left, bottom right, top right and top left corners, with weights 1, 3,
+ * 9 and 27 respectively. Comments give the ternary number in the reversed order, from the top left corner. Polygons are stored
+ * as x and y pairs in tenths of the cell size, with y growing downwards, so the bottom left corner is (0, 10). Saddles have a
+ * separate set of polygons for each state of the average of the corners; all other indices share one set for every state.
+ */
+public final class IsoBandTable {
+
+	public static final int CELL_SIZE = 10;
+
+	private static final byte[][] NO_POLYGONS = {};
+
+	private static final byte[][][][] POLYGONS = new byte[81][][][];
+
+	private static final boolean[] SADDLES = new boolean[81];
+
+	static {
+		for (int saddleIndex : new int[] { 10, 11, 19, 20, 23, 30, 33, 47, 50, 57, 60, 61, 69, 70 }) {
+			SADDLES[saddleIndex] = true;
+		}
+
+
+		POLYGONS[0] = unambiguous(NO_POLYGONS);
+		// Single triangle 0001.
+		POLYGONS[1] = unambiguous(new byte[][] { { 0, 10, 6, 10, 0, 4 } });
+		// Single trapezoid 0002.
+		POLYGONS[2] = unambiguous(new byte[][] { { 0, 6, 4, 10, 6, 10, 0, 4 } });
+		// Single triangle 0010.
+		POLYGONS[3] = unambiguous(new byte[][] { { 4, 10, 10, 10, 10, 4 } });
+		// Single rectangle 0011.
+		POLYGONS[4] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 4, 0, 4 } });
+		// Single pentagon 0012.
+		POLYGONS[5] = unambiguous(new byte[][] { { 0, 6, 4, 10, 10, 10, 10, 4, 0, 4 } });
+		// Single trapezoid 0020.
+		POLYGONS[6] = unambiguous(new byte[][] { { 4, 10, 6, 10, 10, 6, 10, 4 } });
+		// Single pentagon 0021.
+		POLYGONS[7] = unambiguous(new byte[][] { { 0, 10, 6, 10, 10, 6, 10, 4, 0, 4 } });
+		// Single rectangle 0022.
+		POLYGONS[8] = unambiguous(new byte[][] { { 0, 6, 10, 6, 10, 4, 0, 4 } });
+		// Single triangle 0100.
+		POLYGONS[9] = unambiguous(new byte[][] { { 4, 0, 10, 6, 10, 0 } });
+		// Saddle 0101.
+		POLYGONS[10] = new byte[][][] {
+				{ { 0, 10, 6, 10, 0, 4 }, { 4, 0, 10, 6, 10, 0 } },
+				{ { 0, 10, 6, 10, 10, 6, 10, 0, 4, 0, 0, 4 } },
+				{} };
+		// Saddle 0102.
+		POLYGONS[11] = new byte[][][] {
+				{ { 0, 6, 10, 6, 10, 4, 0, 4 }, { 4, 0, 10, 6, 10, 0 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 0, 4, 0, 0, 4, 0, 6 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 0, 4, 0, 0, 4, 0, 6 } } };
+		// Single rectangle 0110.
+		POLYGONS[12] = unambiguous(new byte[][] { { 4, 10, 10, 10, 10, 0, 4, 0 } });
+		// Single pentagon 0111.
+		POLYGONS[13] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 0, 6, 0, 0, 6 } });
+		// Single hexagon 0112.
+		POLYGONS[14] = unambiguous(new byte[][] { { 0, 8, 4, 10, 10, 10, 10, 0, 4, 0, 0, 2 } });
+		// Single pentagon 0120.
+		POLYGONS[15] = unambiguous(new byte[][] { { 4, 10, 6, 10, 10, 6, 10, 0, 4, 0 } });
+		// Single hexagon 0121.
+		POLYGONS[16] = unambiguous(new byte[][] { { 0, 10, 6, 10, 10, 6, 10, 0, 4, 0, 0, 4 } });
+		// Single pentagon 0122.
+		POLYGONS[17] = unambiguous(new byte[][] { { 0, 6, 10, 6, 10, 0, 4, 0, 0, 4 } });
+		// Single trapezoid 0200.
+		POLYGONS[18] = unambiguous(new byte[][] { { 10, 6, 10, 4, 6, 0, 4, 0 } });
+		// Saddle 0201.
+		POLYGONS[19] = new byte[][][] {
+				{ { 0, 10, 6, 10, 0, 4 }, { 10, 6, 10, 4, 6, 0, 4, 0 } },
+				{ { 0, 10, 6, 10, 10, 6, 10, 4, 6, 0, 4, 0, 0, 4 } },
+				{ { 0, 10, 6, 10, 10, 6, 10, 4, 6, 0, 4, 0, 0, 4 } } };
+		// Saddle 0202.
+		POLYGONS[20] = new byte[][][] {
+				{ { 0, 6, 10, 6, 10, 4, 0, 4 }, { 10, 6, 10, 4, 6, 0, 4, 0 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 4, 6, 0, 4, 0, 0, 4, 0, 6 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 4 }, { 0, 6, 6, 0, 4, 0, 0, 4 } } };
+		// Single pentagon 0210.
+		POLYGONS[21] = unambiguous(new byte[][] { { 4, 10, 10, 10, 10, 4, 6, 0, 4, 0 } });
+		// Single hexagon 0211.
+		POLYGONS[22] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 4, 8, 0, 2, 0, 0, 4 } });
+		// Saddle 0212.
+		POLYGONS[23] = new byte[][][] {
+				{ { 4, 10, 10, 10, 10, 4, 6, 0, 4, 0, 0, 4, 0, 6 } },
+				{ { 4, 10, 10, 10, 10, 4, 6, 0, 4, 0, 0, 4, 0, 6 } },
+				{ { 0, 6, 6, 0, 4, 0, 0, 4 }, { 4, 10, 10, 10, 10, 4 } } };
+		// Single rectangle 0220.
+		POLYGONS[24] = unambiguous(new byte[][] { { 4, 10, 6, 10, 6, 0, 4, 0 } });
+		// Single pentagon 0221.
+		POLYGONS[25] = unambiguous(new byte[][] { { 0, 10, 6, 10, 6, 0, 4, 0, 0, 4 } });
+		// Single trapezoid 0222.
+		POLYGONS[26] = unambiguous(new byte[][] { { 0, 6, 6, 0, 4, 0, 0, 4 } });
+		// Single triangle 1000.
+		POLYGONS[27] = unambiguous(new byte[][] { { 0, 6, 6, 0, 0, 0 } });
+		// Single rectangle 1001.
+		POLYGONS[28] = unambiguous(new byte[][] { { 0, 10, 6, 10, 6, 0, 0, 0 } });
+		// Single pentagon 1002.
+		POLYGONS[29] = unambiguous(new byte[][] { { 4, 10, 6, 10, 6, 0, 0, 0, 0, 6 } });
+		// Saddle 1010.
+		POLYGONS[30] = new byte[][][] {
+				{ { 4, 10, 10, 10, 10, 4 }, { 0, 6, 6, 0, 0, 0 } },
+				{ { 4, 10, 10, 10, 10, 4, 6, 0, 0, 0, 0, 6 } },
+				{} };
+		// Single pentagon 1011.
+		POLYGONS[31] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 6, 4, 0, 0, 0 } });
+		// Single hexagon 1012.
+		POLYGONS[32] = unambiguous(new byte[][] { { 4, 10, 10, 10, 10, 4, 6, 0, 0, 0, 0, 6 } });
+		// Saddle 1020.
+		POLYGONS[33] = new byte[][][] {
+				{ { 0, 6, 6, 0, 0, 0 }, { 4, 10, 6, 10, 10, 6, 10, 4 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 4, 6, 0, 0, 0, 0, 6 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 4, 6, 0, 0, 0, 0, 6 } } };
+		// Single hexagon 1021.
+		POLYGONS[34] = unambiguous(new byte[][] { { 0, 10, 6, 10, 10, 8, 10, 2, 6, 0, 0, 0 } });
+		// Single pentagon 1022.
+		POLYGONS[35] = unambiguous(new byte[][] { { 0, 6, 10, 6, 10, 4, 6, 0, 0, 0 } });
+		// Single rectangle 1100.
+		POLYGONS[36] = unambiguous(new byte[][] { { 0, 6, 10, 6, 10, 0, 0, 0 } });
+		// Single pentagon 1101.
+		POLYGONS[37] = unambiguous(new byte[][] { { 0, 10, 4, 10, 10, 4, 10, 0, 0, 0 } });
+		// Single hexagon 1102.
+		POLYGONS[38] = unambiguous(new byte[][] { { 2, 10, 8, 10, 10, 6, 10, 0, 0, 0, 0, 6 } });
+		// Single pentagon 1110.
+		POLYGONS[39] = unambiguous(new byte[][] { { 6, 10, 10, 10, 10, 0, 0, 0, 0, 4 } });
+		// Single square 1111.
+		POLYGONS[40] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 0, 0, 0 } });
+		// Single pentagon 1112.
+		POLYGONS[41] = unambiguous(new byte[][] { { 6, 10, 10, 10, 10, 0, 0, 0, 0, 4 } });
+		// Single hexagon 1120.
+		POLYGONS[42] = unambiguous(new byte[][] { { 2, 10, 8, 10, 10, 6, 10, 0, 0, 0, 0, 6 } });
+		// Single pentagon 1121.
+		POLYGONS[43] = unambiguous(new byte[][] { { 0, 10, 4, 10, 10, 4, 10, 0, 0, 0 } });
+		// Single rectangle 1122.
+		POLYGONS[44] = unambiguous(new byte[][] { { 0, 6, 10, 6, 10, 0, 0, 0 } });
+		// Single pentagon 1200.
+		POLYGONS[45] = unambiguous(new byte[][] { { 0, 6, 10, 6, 10, 4, 6, 0, 0, 0 } });
+		// Single hexagon 1201.
+		POLYGONS[46] = unambiguous(new byte[][] { { 0, 10, 6, 10, 10, 8, 10, 2, 6, 0, 0, 0 } });
+		// Saddle 1202.
+		POLYGONS[47] = new byte[][][] {
+				{ { 4, 10, 6, 10, 10, 6, 10, 4, 6, 0, 0, 0, 0, 6 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 4, 6, 0, 0, 0, 0, 6 } },
+				{ { 0, 10, 10, 10, 10, 4, 0, 4 }, { 0, 6, 6, 0, 0, 0 } } };
+		// Single hexagon 1210.
+		POLYGONS[48] = unambiguous(new byte[][] { { 4, 10, 10, 10, 10, 4, 6, 0, 0, 0, 0, 6 } });
+		// Single pentagon 1211.
+		POLYGONS[49] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 6, 4, 0, 0, 0 } });
+		// Saddle 1212.
+		POLYGONS[50] = new byte[][][] {
+				{},
+				{ { 4, 10, 10, 10, 10, 4, 6, 0, 0, 0, 0, 6 } },
+				{ { 4, 10, 10, 10, 10, 4 }, { 0, 6, 6, 0, 0, 0 } } };
+		// Single pentagon 1220.
+		POLYGONS[51] = unambiguous(new byte[][] { { 4, 10, 6, 10, 6, 0, 0, 0, 0, 6 } });
+		// Single rectangle 1221.
+		POLYGONS[52] = unambiguous(new byte[][] { { 0, 10, 6, 10, 6, 0, 0, 0 } });
+		// Single triangle 1222.
+		POLYGONS[53] = unambiguous(new byte[][] { { 0, 6, 6, 0, 0, 0 } });
+		// Single trapezoid 2000.
+		POLYGONS[54] = unambiguous(new byte[][] { { 0, 6, 6, 0, 4, 0, 0, 4 } });
+		// Single pentagon 2001.
+		POLYGONS[55] = unambiguous(new byte[][] { { 0, 10, 6, 10, 6, 0, 4, 0, 0, 4 } });
+		// Single rectangle 2002.
+		POLYGONS[56] = unambiguous(new byte[][] { { 4, 10, 6, 10, 6, 0, 4, 0 } });
+		// Saddle 2010.
+		POLYGONS[57] = new byte[][][] {
+				{ { 0, 6, 6, 0, 4, 0, 0, 4 }, { 4, 10, 10, 10, 10, 4 } },
+				{ { 4, 10, 10, 10, 10, 4, 6, 0, 4, 0, 0, 4, 0, 6 } },
+				{ { 4, 10, 10, 10, 10, 4, 6, 0, 4, 0, 0, 4, 0, 6 } } };
+		// Single hexagon 2011.
+		POLYGONS[58] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 4, 8, 0, 2, 0, 0, 4 } });
+		// Single pentagon 2012.
+		POLYGONS[59] = unambiguous(new byte[][] { { 4, 10, 10, 10, 10, 4, 6, 0, 4, 0 } });
+		// Saddle 2020.
+		POLYGONS[60] = new byte[][][] {
+				{ { 4, 10, 6, 10, 10, 6, 10, 4 }, { 0, 6, 6, 0, 4, 0, 0, 4 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 4, 6, 0, 4, 0, 0, 4, 0, 6 } },
+				{ { 0, 6, 10, 6, 10, 4, 0, 4 }, { 10, 6, 10, 4, 6, 0, 4, 0 } } };
+		// Saddle 2021.
+		POLYGONS[61] = new byte[][][] {
+				{ { 0, 10, 6, 10, 10, 6, 10, 4, 6, 0, 4, 0, 0, 4 } },
+				{ { 0, 10, 6, 10, 10, 6, 10, 4, 6, 0, 4, 0, 0, 4 } },
+				{ { 0, 10, 6, 10, 0, 4 }, { 10, 6, 10, 4, 6, 0, 4, 0 } } };
+		// Single trapezoid 2022.
+		POLYGONS[62] = unambiguous(new byte[][] { { 10, 6, 10, 4, 6, 0, 4, 0 } });
+		// Single pentagon 2100.
+		POLYGONS[63] = unambiguous(new byte[][] { { 0, 6, 10, 6, 10, 0, 4, 0, 0, 4 } });
+		// Single hexagon 2101.
+		POLYGONS[64] = unambiguous(new byte[][] { { 0, 10, 6, 10, 10, 6, 10, 0, 4, 0, 0, 4 } });
+		// Single pentagon 2102.
+		POLYGONS[65] = unambiguous(new byte[][] { { 4, 10, 6, 10, 10, 6, 10, 0, 4, 0 } });
+		// Single hexagon 2110.
+		POLYGONS[66] = unambiguous(new byte[][] { { 0, 8, 4, 10, 10, 10, 10, 0, 4, 0, 0, 2 } });
+		// Single pentagon 2111.
+		POLYGONS[67] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 0, 6, 0, 0, 6 } });
+		// Single rectangle 2112.
+		POLYGONS[68] = unambiguous(new byte[][] { { 4, 10, 10, 10, 10, 0, 4, 0 } });
+		// Saddle 2120.
+		POLYGONS[69] = new byte[][][] {
+				{ { 4, 10, 6, 10, 10, 6, 10, 0, 4, 0, 0, 4, 0, 6 } },
+				{ { 4, 10, 6, 10, 10, 6, 10, 0, 4, 0, 0, 4, 0, 6 } },
+				{ { 0, 6, 10, 6, 10, 4, 0, 4 }, { 4, 0, 10, 6, 10, 0 } } };
+		// Saddle 2121.
+		POLYGONS[70] = new byte[][][] {
+				{},
+				{ { 0, 10, 6, 10, 10, 6, 10, 0, 4, 0, 0, 4 } },
+				{ { 0, 10, 6, 10, 0, 4 }, { 4, 0, 10, 6, 10, 0 } } };
+		// Single triangle 2122.
+		POLYGONS[71] = unambiguous(new byte[][] { { 4, 0, 10, 6, 10, 0 } });
+		// Single rectangle 2200.
+		POLYGONS[72] = unambiguous(new byte[][] { { 0, 6, 10, 6, 10, 4, 0, 4 } });
+		// Single pentagon 2201.
+		POLYGONS[73] = unambiguous(new byte[][] { { 0, 10, 6, 10, 10, 6, 10, 4, 0, 4 } });
+		// Single trapezoid 2202.
+		POLYGONS[74] = unambiguous(new byte[][] { { 4, 10, 6, 10, 10, 6, 10, 4 } });
+		// Single pentagon 2210.
+		POLYGONS[75] = unambiguous(new byte[][] { { 0, 6, 4, 10, 10, 10, 10, 4, 0, 4 } });
+		// Single rectangle 2211.
+		POLYGONS[76] = unambiguous(new byte[][] { { 0, 10, 10, 10, 10, 4, 0, 4 } });
+		// Single triangle 2212.
+		POLYGONS[77] = unambiguous(new byte[][] { { 4, 10, 10, 10, 10, 4 } });
+		// Single trapezoid 2220.
+		POLYGONS[78] = unambiguous(new byte[][] { { 0, 6, 4, 10, 6, 10, 0, 4 } });
+		// Single triangle 2221.
+		POLYGONS[79] = unambiguous(new byte[][] { { 0, 10, 6, 10, 0, 4 } });
+		POLYGONS[80] = unambiguous(NO_POLYGONS);
+	}
+
+	private IsoBandTable() {
+	}
+
+	/**
+	 * Returns polygons of the iso band for the given ternary index of the iso cell and the state of the average of its corners,
+	 * which only matters for saddles. Returned arrays are shared and must not be modified.
+	 */
+	public static byte[][] getPolygons(int ternaryIndex, int ternaryIndexOfAverageOfCorners) {
+		return POLYGONS[ternaryIndex][ternaryIndexOfAverageOfCorners];
+	}
+
+	/**
+	 * Returns true if polygons of the ternary index depend on the state of the average of the corners.
+	 */
+	public static boolean isSaddle(int ternaryIndex) {
+		return SADDLES[ternaryIndex];
+	}
+
+	private static byte[][][] unambiguous(byte[][] polygons) {
+		return new byte[][][] { polygons, polygons, polygons };
+	}
+}
@@ -0,0 +1,245 @@
+package org.contour2dplot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.scene.paint.Color;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Stitches per-cell iso band polygons into closed outlines, one set of outlines per iso band color.
+ * <p>
+ * Polygons are expected in the lattice coordinates, where every iso cell has the size of {@link #LATTICE_CELL_SIZE}. All
+ * vertices of the iso cell polygons in {@link IsoBandTable} lie at 0, 0.4, 0.6 or 1.0 of the cell size, so in the lattice they
+ * are exact integers and the same vertex produced by two neighbouring cells is always the same point. Every polygon is
+ * oriented the same way and split into edges; edges shared by two polygons of the band appear twice in opposite directions
+ * and cancel out, so only the band boundary remains. Remaining edges are then linked into closed outlines. Outer outlines and
+ * outlines of holes run in opposite directions, so the band is correctly filled with the non-zero fill rule.
+ */
+public class IsoBandTracer implements IsoBandSink {
+
+	public static final int LATTICE_CELL_SIZE = IsoBandTable.CELL_SIZE;
+
+	private static final int[] LATTICE_CELL_VERTICES = { 0, 4, 6 };
+
+	private HashMap<Color, HashMap<Long, ArrayList<Long>>> edgesOfBands = new HashMap<>();
+
+	private int[] xPoints = new int[8];
+	private int[] yPoints = new int[8];
+
+	@Override
+	public void addPolygon(double[] points, int numberOfPoints, Color color) {
+
+		HashMap<Long, ArrayList<Long>> edges = edgesOfBands.computeIfAbsent(color, key -> new HashMap<>());
+
+		if (xPoints.length < numberOfPoints) {
+			xPoints = new int[numberOfPoints];
+			yPoints = new int[numberOfPoints];
+		}
+
+		long doubleSignedArea = 0;
+		for (int i = 0; i < numberOfPoints; i++) {
+			xPoints[i] = (int) Math.round(points[2 * i]);
+			yPoints[i] = (int) Math.round(points[2 * i + 1]);
+		}
+		for (int i = 0; i < numberOfPoints; i++) {
+			int next = (i + 1) % numberOfPoints;
+			doubleSignedArea += (long) xPoints[i] * yPoints[next] - (long) xPoints[next] * yPoints[i];
+		}
+
+		for (int i = 0; i < numberOfPoints; i++) {
+			int next = (i + 1) % numberOfPoints;
+			if (doubleSignedArea >= 0) {
+				addSplitEdge(edges, xPoints[i], yPoints[i], xPoints[next], yPoints[next]);
+			} else {
+				addSplitEdge(edges, xPoints[next], yPoints[next], xPoints[i], yPoints[i]);
+			}
+		}
+	}
+
+	/**
+	 * Adds all edges collected by the other tracer, for example one which traced another strip of rows, and clears it.
+	 */
+	public void merge(IsoBandTracer isoBandTracer) {
+
+		for (Color color : isoBandTracer.edgesOfBands.keySet()) {
+
+			HashMap<Long, ArrayList<Long>> edges = edgesOfBands.computeIfAbsent(color, key -> new HashMap<>());
+
+			for (Map.Entry<Long, ArrayList<Long>> edgesFromVertex : isoBandTracer.edgesOfBands.get(color).entrySet()) {
+				for (long to : edgesFromVertex.getValue()) {
+					addEdge(edges, edgesFromVertex.getKey(), to);
+				}
+			}
+		}
+
+		isoBandTracer.edgesOfBands.clear();
+	}
+
+	/**
+	 * Returns closed outlines of every iso band, keyed by the color of the band. Each outline is stored as x and y pairs of
+	 * lattice coordinates, without repeating the first vertex at the end.
+	 * <p>
+	 * Outlines are started from the lowest remaining vertex and follow the lowest target wherever more than one edge leaves the
+	 * vertex, so they only depend on the edges left after cancelling, not on the order in which polygons were added.
+	 */
+	public HashMap<Color, ArrayList<int[]>> trace() {
+
+		HashMap<Color, ArrayList<int[]>> outlinesOfBands = new HashMap<>();
+
+		for (Color color : edgesOfBands.keySet()) {
+
+			HashMap<Long, ArrayList<Long>> edges = edgesOfBands.get(color);
+			ArrayList<int[]> outlines = new ArrayList<>();
+
+			long[] startVertices = new long[edges.size()];
+			int numberOfStartVertices = 0;
+			for (long vertex : edges.keySet()) {
+				startVertices[numberOfStartVertices++] = vertex;
+			}
+			Arrays.sort(startVertices);
+
+			for (long start : startVertices) {
+
+				while (edges.containsKey(start)) {
+
+					long vertex = start;
+
+					ArrayList<Long> vertices = new ArrayList<>();
+
+					do {
+						vertices.add(vertex);
+
+						ArrayList<Long> targets = edges.get(vertex);
+						long target = targets.remove(targets.indexOf(Collections.min(targets)));
+						if (targets.isEmpty()) {
+							edges.remove(vertex);
+						}
+						vertex = target;
+					} while (vertex != start);
+
+					int[] outline = removeCollinearVertices(vertices);
+					if (outline.length >= 6) {
+						outlines.add(outline);
+					}
+				}
+			}
+
+			outlinesOfBands.put(color, outlines);
+		}
+
+		edgesOfBands.clear();
+
+		return outlinesOfBands;
+	}
+
+	/**
+	 * Splits horizontal and vertical edges at every iso cell vertex lying on them, so an edge spanning the whole side of one cell
+	 * cancels out with the shorter edges of the neighbouring cell lying on the same side.
+	 */
+	private void addSplitEdge(HashMap<Long, ArrayList<Long>> edges, int x1, int y1, int x2, int y2) {
+
+		if (x1 == x2 && y1 == y2) {
+			return;
+		}
+
+		if (x1 != x2 && y1 != y2) {
+			addEdge(edges, toVertex(x1, y1), toVertex(x2, y2));
+			return;
+		}
+
+		int step = (x1 == x2) ? Integer.signum(y2 - y1) : Integer.signum(x2 - x1);
+		int from = (x1 == x2) ? y1 : x1;
+		int to = (x1 == x2) ? y2 : x2;
+
+		int previous = from;
+		for (int current = from + step; current != to + step; current += step) {
+			if (current == to || isLatticeCellVertex(current)) {
+				if (x1 == x2) {
+					addEdge(edges, toVertex(x1, previous), toVertex(x1, current));
+				} else {
+					addEdge(edges, toVertex(previous, y1), toVertex(current, y1));
+				}
+				previous = current;
+			}
+		}
+	}
+
+	private void addEdge(HashMap<Long, ArrayList<Long>> edges, long from, long to) {
+
+		ArrayList<Long> reversedEdges = edges.get(to);
+		if (reversedEdges != null && reversedEdges.remove(Long.valueOf(from))) {
+			if (reversedEdges.isEmpty()) {
+				edges.remove(to);
+			}
+			return;
+		}
+
+		edges.computeIfAbsent(from, key -> new ArrayList<>(2)).add(to);
+	}
+
+	private int[] removeCollinearVertices(ArrayList<Long> vertices) {
+
+		int size = vertices.size();
+		int[] outline = new int[2 * size];
+		int length = 0;
+
+		for (int i = 0; i < size; i++) {
+
+			long previous = vertices.get((i + size - 1) % size);
+			long current = vertices.get(i);
+			long next = vertices.get((i + 1) % size);
+
+			long crossProduct = (long) (getX(current) - getX(previous)) * (getY(next) - getY(current))
+					- (long) (getY(current) - getY(previous)) * (getX(next) - getX(current));
+
+			if (crossProduct != 0) {
+				outline[length++] = getX(current);
+				outline[length++] = getY(current);
+			}
+		}
+
+		int[] trimmedOutline = new int[length];
+		System.arraycopy(outline, 0, trimmedOutline, 0, length);
+		return trimmedOutline;
+	}
+
+	private boolean isLatticeCellVertex(int coordinate) {
+		int positionInCell = Math.floorMod(coordinate, LATTICE_CELL_SIZE);
+		for (int vertex : LATTICE_CELL_VERTICES) {
+			if (positionInCell == vertex) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long toVertex(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	private static int getX(long vertex) {
+		return (int) (vertex >> 32);
+	}
+
+	private static int getY(long vertex) {
+		return (int) vertex;
+	}
+}
@@ -0,0 +1,460 @@
+package org.contour2dplot;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Marching squares classification of all iso cells of the interpolated data, based on:
+ * https://en.wikipedia.org/wiki/Marching_squares#Isoband.
+ * <p>
+ * Every cell crosses a consecutive range of bands, from the first band reaching its lowest corner to the last band reached by
+ * its highest corner, and each of these bands gives the cell a ternary index different than 0 and 80. For every such band the
+ * grid stores one case byte, equal to ternary index * 3 + ternary index of the average of the corners (0 for cells which are
+ * not saddles), so it can be read back with {@link #getTernaryIndex(int)} and {@link #getTernaryIndexOfAverageOfCorners(int)}.
+ * Cases of the cell with index row * columns + column are stored from {@link #getFirstCase(int)} up to, but not including,
+ * {@link #getFirstCase(int)} of the next cell, and the first of them belongs to the band {@link #getFirstBand(int)}.
+ * <p>
+ * Grids of reduced storages are classified without converting them to doubles first. Rows are read a pair at a time, and
+ * band indices of grids of the "Short" storage are looked up by codes in tables filled once per classification.
+ * <p>
+ * Cells left out of the optional set of valid cells, for example cells with missing data, get no cases and are skipped
+ * without classifying them.
+ * <p>
+ * Averages of the corners only decide the cases of saddles, so they are computed per row while classifying it and are not
+ * kept. The grid thus holds two ints per cell, the first band and the first case, and one byte per case, whatever the storage
+ * of the interpolated data.
+ * <p>
+ * Arrays are kept between subsequent classifications and only grow when needed, so the grid can be reused for every draw.
+ */
+public class IsoCaseGrid {
+
+	private int columns;
+	private int rows;
+
+	private int[] firstBands = new int[0];
+	private int[] firstCases = new int[1];
+	private byte[] cases = new byte[0];
+
+	// Band indices of every code of grids of the "Short" storage, indexed by code - Short.MIN_VALUE.
+	private int[] firstBandsOfCodes;
+	private int[] lastBandsOfCodes;
+
+	// Buffers of the strips classified in parallel, kept for the subsequent classifications.
+	private byte[][] casesOfStrips = new byte[1][];
+	private int[] numbersOfCasesOfStrips = new int[1];
+
+	public void classify(Grid2D interpolatedData, double[] isoLevels) {
+		classify(interpolatedData, isoLevels, null);
+	}
+
+	/**
+	 * Classifies strips of rows in parallel on the given pool, or serially if the pool is null. Every strip collects its cases
+	 * in a separate buffer, which are then joined in the order of the strips, so the result does not depend on the pool.
+	 */
+	public void classify(Grid2D interpolatedData, double[] isoLevels, ForkJoinPool forkJoinPool) {
+		classify(interpolatedData, isoLevels, null, forkJoinPool);
+	}
+
+	/**
+	 * Classifies only the cells whose index row * columns + column is set in the given set of valid cells, or all cells if it
+	 * is null, like {@link #classify(Grid2D, double[], ForkJoinPool)}.
+	 */
+	public void classify(Grid2D interpolatedData, double[] isoLevels, BitSet validCells, ForkJoinPool forkJoinPool) {
+
+		columns = interpolatedData.getWidth() - 1;
+		rows = interpolatedData.getHeight() - 1;
+
+		int numberOfCells = columns * rows;
+		if (firstBands.length < numberOfCells) {
+			firstBands = new int[numberOfCells];
+			firstCases = new int[numberOfCells + 1];
+		}
+
+		if (interpolatedData.getStorage().equals("Short")) {
+			if (firstBandsOfCodes == null) {
+				firstBandsOfCodes = new int[1 << 16];
+				lastBandsOfCodes = new int[1 << 16];
+			}
+			findBandsOfCodes(interpolatedData, isoLevels);
+		}
+
+		int numberOfStrips = RowStrips.getNumberOfStrips(forkJoinPool, rows);
+
+		if (numberOfStrips == 1) {
+			// Serial classification writes straight into the cases of the grid.
+			casesOfStrips[0] = cases;
+			firstCases[numberOfCells] = classifyRows(interpolatedData, isoLevels, validCells, 0, 0, rows);
+			cases = casesOfStrips[0];
+			casesOfStrips[0] = null;
+			return;
+		}
+
+		if (casesOfStrips.length != numberOfStrips) {
+			casesOfStrips = new byte[numberOfStrips][];
+			numbersOfCasesOfStrips = new int[numberOfStrips];
+		}
+
+		RowStrips.forEach(forkJoinPool, rows, (strip, fromRow, toRow) -> {
+			numbersOfCasesOfStrips[strip] = classifyRows(interpolatedData, isoLevels, validCells, strip, fromRow, toRow);
+		});
+
+		int[] offsetsOfStrips = new int[numberOfStrips];
+		int numberOfCases = 0;
+		for (int strip = 0; strip < numberOfStrips; strip++) {
+			offsetsOfStrips[strip] = numberOfCases;
+			numberOfCases += numbersOfCasesOfStrips[strip];
+		}
+
+		if (cases.length < numberOfCases) {
+			cases = new byte[numberOfCases];
+		}
+
+		RowStrips.forEach(forkJoinPool, rows, (strip, fromRow, toRow) -> {
+			int offset = offsetsOfStrips[strip];
+			System.arraycopy(casesOfStrips[strip], 0, cases, offset, numbersOfCasesOfStrips[strip]);
+			for (int cell = fromRow * columns; cell < toRow * columns; cell++) {
+				firstCases[cell] += offset;
+			}
+		});
+
+		firstCases[numberOfCells] = numberOfCases;
+	}
+
+	/**
+	 * Classifies cells of the given rows again after their values changed, keeping the cases of all other cells. The grid and
+	 * the iso levels have to be the same as in the last classification. Cases of the cells after the rows are moved if the rows
+	 * now have a different number of cases.
+	 */
+	public void reclassify(Grid2D interpolatedData, double[] isoLevels, BitSet validCells, int fromRow, int toRow) {
+
+		int fromCell = fromRow * columns;
+		int toCell = toRow * columns;
+		int numberOfCells = columns * rows;
+
+		int fromCase = firstCases[fromCell];
+		int toCase = firstCases[toCell];
+		int numberOfCases = firstCases[numberOfCells];
+
+		// Cases of the rows are collected in a separate buffer, so the buffer kept for the first strip is set aside meanwhile.
+		byte[] casesOfFirstStrip = casesOfStrips[0];
+		casesOfStrips[0] = null;
+		int numberOfRowCases = classifyRows(interpolatedData, isoLevels, validCells, 0, fromRow, toRow);
+		byte[] rowCases = casesOfStrips[0];
+		casesOfStrips[0] = casesOfFirstStrip;
+
+		int shift = numberOfRowCases - (toCase - fromCase);
+		if (shift != 0) {
+			if (cases.length < numberOfCases + shift) {
+				cases = grow(cases, numberOfCases, numberOfCases + shift);
+			}
+			System.arraycopy(cases, toCase, cases, toCase + shift, numberOfCases - toCase);
+			for (int cell = toCell; cell <= numberOfCells; cell++) {
+				firstCases[cell] += shift;
+			}
+		}
+
+		System.arraycopy(rowCases, 0, cases, fromCase, numberOfRowCases);
+		for (int cell = fromCell; cell < toCell; cell++) {
+			firstCases[cell] += fromCase;
+		}
+	}
+
+	/**
+	 * Classifies cells of the given rows into the buffer of the strip and returns the number of cases. Indices of the first
+	 * cases of the cells are relative to the beginning of the buffer.
+	 * <p>
+	 * Band indices of every value are found once per row of values, after which corner states, band ranges and ternary indices
+	 * of the first bands of a whole row of cells are computed by {@link RowKernels}. Only cells crossing more than one band, and
+	 * cells with undefined values, are classified further one by one. Rows without valid cells only have their band indices
+	 * found, which the next row needs.
+	 */
+	private int classifyRows(Grid2D interpolatedData, double[] isoLevels, BitSet validCells, int strip, int fromRow,
+			int toRow) {
+
+		byte[] stripCases = (casesOfStrips[strip] != null) ? casesOfStrips[strip] : new byte[0];
+		int numberOfCases = 0;
+
+		int lastBand = isoLevels.length - 2;
+
+		int[] topFirstBands = new int[columns + 1];
+		int[] topLastBands = new int[columns + 1];
+		int[] bottomFirstBands = new int[columns + 1];
+		int[] bottomLastBands = new int[columns + 1];
+		int[] firstBandsOfCells = new int[columns];
+		int[] lastBandsOfCells = new int[columns];
+		int[] ternaryIndices = new int[columns];
+		double[] centerValues = new double[columns];
+
+		// Rows of reduced storages are read as doubles into two halves of a buffer, used in turns by subsequent rows.
+		boolean doubleData = interpolatedData.getStorage().equals("Double");
+		double[] values = doubleData ? interpolatedData.getValues() : new double[2 * (columns + 1)];
+
+		findBands(interpolatedData, isoLevels, fromRow, values, getRowOffset(interpolatedData, fromRow), topFirstBands,
+				topLastBands);
+
+		for (int row = fromRow; row < toRow; row++) {
+
+			int topRow = getRowOffset(interpolatedData, row);
+			int bottomRow = getRowOffset(interpolatedData, row + 1);
+
+			findBands(interpolatedData, isoLevels, row + 1, values, bottomRow, bottomFirstBands, bottomLastBands);
+
+			int firstCellOfRow = row * columns;
+			int firstValidCell = (validCells != null) ? validCells.nextSetBit(firstCellOfRow) : firstCellOfRow;
+			boolean anyValidCell = firstValidCell >= 0 && firstValidCell < firstCellOfRow + columns;
+
+			if (anyValidCell) {
+				RowKernels.centerValues(values, topRow, bottomRow, columns, centerValues, 0);
+				RowKernels.firstCases(topFirstBands, topLastBands, bottomFirstBands, bottomLastBands, columns, lastBand,
+						firstBandsOfCells, lastBandsOfCells, ternaryIndices);
+			}
+
+			for (int column = 0; column < columns; column++) {
+
+				int cell = firstCellOfRow + column;
+
+				firstCases[cell] = numberOfCases;
+
+				if (!anyValidCell || (validCells != null && !validCells.get(cell))) {
+					firstBands[cell] = 0;
+					continue;
+				}
+
+				double centerValue = centerValues[column];
+
+				if (Double.isNaN(centerValue)) {
+					// Band indices do not order undefined values, so classify such cells by comparing their corners.
+					if (stripCases.length < numberOfCases + lastBand + 1) {
+						stripCases = grow(stripCases, numberOfCases, numberOfCases + lastBand + 1);
+					}
+					numberOfCases = classifyCell(isoLevels, values, topRow + column, bottomRow + column, centerValue, cell,
+							stripCases, numberOfCases);
+					continue;
+				}
+
+				int firstBand = firstBandsOfCells[column];
+				int lastBandOfCell = lastBandsOfCells[column];
+
+				firstBands[cell] = firstBand;
+
+				if (stripCases.length < numberOfCases + lastBandOfCell - firstBand + 1) {
+					stripCases = grow(stripCases, numberOfCases, numberOfCases + lastBandOfCell - firstBand + 1);
+				}
+
+				for (int band = firstBand; band <= lastBandOfCell; band++) {
+
+					int ternaryIndex = ternaryIndices[column];
+					if (band != firstBand) {
+						ternaryIndex = RowKernels.getTernaryIndex(topFirstBands, topLastBands, bottomFirstBands, bottomLastBands,
+								column, band);
+					}
+
+					int ternaryIndexOfAverageOfCorners = 0;
+					if (IsoBandTable.isSaddle(ternaryIndex)) {
+						ternaryIndexOfAverageOfCorners = getState(isoLevels[band], isoLevels[band + 1], centerValue);
+					}
+
+					stripCases[numberOfCases++] = (byte) (ternaryIndex * 3 + ternaryIndexOfAverageOfCorners);
+				}
+			}
+
+			int[] swappedFirstBands = topFirstBands;
+			topFirstBands = bottomFirstBands;
+			bottomFirstBands = swappedFirstBands;
+
+			int[] swappedLastBands = topLastBands;
+			topLastBands = bottomLastBands;
+			bottomLastBands = swappedLastBands;
+		}
+
+		casesOfStrips[strip] = stripCases;
+		return numberOfCases;
+	}
+
+	/**
+	 * Classifies a single cell by comparing its corners with the iso levels of every band it crosses and returns the number of
+	 * cases after the cell. The buffer has to have room for cases of all bands.
+	 */
+	private int classifyCell(double[] isoLevels, double[] values, int topLeftIndex, int bottomLeftIndex, double centerValue,
+			int cell, byte[] stripCases, int numberOfCases) {
+
+		double bottomLeft = values[bottomLeftIndex];
+		double bottomRight = values[bottomLeftIndex + 1];
+		double topRight = values[topLeftIndex + 1];
+		double topLeft = values[topLeftIndex];
+
+		double minCorner = Math.min(Math.min(bottomLeft, bottomRight), Math.min(topRight, topLeft));
+		double maxCorner = Math.max(Math.max(bottomLeft, bottomRight), Math.max(topRight, topLeft));
+
+		int firstBand = findFirstBand(isoLevels, minCorner);
+		int lastBand = findLastBand(isoLevels, maxCorner);
+
+		firstBands[cell] = firstBand;
+
+		for (int band = firstBand; band <= lastBand; band++) {
+
+			double startOfRange = isoLevels[band];
+			double endOfRange = isoLevels[band + 1];
+
+			int ternaryIndex = getState(startOfRange, endOfRange, bottomLeft)
+					+ 3 * getState(startOfRange, endOfRange, bottomRight)
+					+ 9 * getState(startOfRange, endOfRange, topRight)
+					+ 27 * getState(startOfRange, endOfRange, topLeft);
+
+			int ternaryIndexOfAverageOfCorners = 0;
+			if (IsoBandTable.isSaddle(ternaryIndex)) {
+				ternaryIndexOfAverageOfCorners = getState(startOfRange, endOfRange, centerValue);
+			}
+
+			stripCases[numberOfCases++] = (byte) (ternaryIndex * 3 + ternaryIndexOfAverageOfCorners);
+		}
+
+		return numberOfCases;
+	}
+
+	private int getRowOffset(Grid2D interpolatedData, int row) {
+		if (interpolatedData.getStorage().equals("Double")) {
+			return interpolatedData.getIndex(row, 0);
+		}
+		return (row % 2) * (columns + 1);
+	}
+
+	/**
+	 * Finds band indices of the values of a row, as described in {@link RowKernels}. Rows of reduced storages are first read
+	 * into the buffer at the given offset. Band indices of the "Short" storage are looked up by codes, without reading values.
+	 */
+	private void findBands(Grid2D interpolatedData, double[] isoLevels, int row, double[] values, int offset,
+			int[] firstBandsOfValues, int[] lastBandsOfValues) {
+
+		String storage = interpolatedData.getStorage();
+
+		if (!storage.equals("Double")) {
+			interpolatedData.readRow(row, 0, columns + 1, values, offset);
+		}
+
+		if (storage.equals("Short")) {
+			short[] codes = interpolatedData.getShortValues();
+			int index = interpolatedData.getIndex(row, 0);
+			for (int i = 0; i <= columns; i++) {
+				firstBandsOfValues[i] = firstBandsOfCodes[codes[index + i] - Short.MIN_VALUE];
+				lastBandsOfValues[i] = lastBandsOfCodes[codes[index + i] - Short.MIN_VALUE];
+			}
+			return;
+		}
+
+		for (int i = 0; i <= columns; i++) {
+			firstBandsOfValues[i] = getFirstBandIndex(isoLevels, values[offset + i]);
+			lastBandsOfValues[i] = getLastBandIndex(isoLevels, values[offset + i]);
+		}
+	}
+
+	/**
+	 * Finds band indices of every code of the "Short" storage of the grid.
+	 */
+	private void findBandsOfCodes(Grid2D interpolatedData, double[] isoLevels) {
+		for (int code = Short.MIN_VALUE; code <= Short.MAX_VALUE; code++) {
+			double value = interpolatedData.decode(code);
+			firstBandsOfCodes[code - Short.MIN_VALUE] = getFirstBandIndex(isoLevels, value);
+			lastBandsOfCodes[code - Short.MIN_VALUE] = getLastBandIndex(isoLevels, value);
+		}
+	}
+
+	private static int getFirstBandIndex(double[] isoLevels, double value) {
+		return (value > isoLevels[isoLevels.length - 1]) ? isoLevels.length - 1 : findFirstBand(isoLevels, value);
+	}
+
+	private static int getLastBandIndex(double[] isoLevels, double value) {
+		return (value < isoLevels[0]) ? -1 : findLastBand(isoLevels, value);
+	}
+
+	private static byte[] grow(byte[] stripCases, int numberOfCases, int minLength) {
+		byte[] grownCases = new byte[Math.max(2 * stripCases.length, minLength)];
+		System.arraycopy(stripCases, 0, grownCases, 0, numberOfCases);
+		return grownCases;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getFirstBand(int cell) {
+		return firstBands[cell];
+	}
+
+	public int getFirstCase(int cell) {
+		return firstCases[cell];
+	}
+
+	public int getTernaryIndex(int caseIndex) {
+		return (cases[caseIndex] & 0xFF) / 3;
+	}
+
+	public int getTernaryIndexOfAverageOfCorners(int caseIndex) {
+		return (cases[caseIndex] & 0xFF) % 3;
+	}
+
+	/**
+	 * Returns index of the first band whose end, given by the next iso level, is greater than or equal to the value, or the last
+	 * band if there is no such band.
+	 */
+	public static int findFirstBand(double[] isoLevels, double value) {
+		int low = 1;
+		int high = isoLevels.length - 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (isoLevels[middle] >= value) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low - 1;
+	}
+
+	/**
+	 * Returns index of the last band whose start, given by the iso level, is lower than or equal to the value, or 0 if there is
+	 * no such band.
+	 */
+	public static int findLastBand(double[] isoLevels, double value) {
+		int low = 0;
+		int high = isoLevels.length - 2;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (isoLevels[middle] <= value) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	private static int getState(double startOfRange, double endOfRange, double value) {
+		if (value < startOfRange) {
+			return 0;
+		} else if (value <= endOfRange) {
+			return 1;
+		} else {
+			return 2;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package org.contour2dplot;
+
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Takes the value of the nearest data sample, rounding halves up. The cheapest interpolation, giving blocky maps which show the
+ * resolution of the data.
+ */
+public class NearestInterpolator implements Interpolator {
+
+	@Override
+	public double getValue(Grid2D data, double x, double y) {
+		int row = Math.min((int) Math.floor(x + 0.5), data.getHeight() - 1);
+		int column = Math.min((int) Math.floor(y + 0.5), data.getWidth() - 1);
+		return data.get(row, column);
+	}
+
+	/**
+	 * Copies the nearest data value into every sample. Samples outside of refined cells take the nearest value anyway, so the
+	 * refinement mask changes nothing.
+	 */
+	@Override
+	public void upsample(Grid2D data, int interpolationFactorX, int interpolationFactorY, Grid2D upsampledData,
+			RefinementMask refinementMask, ForkJoinPool forkJoinPool) {
+
+		int dataColumns = data.getWidth();
+		int columns = upsampledData.getWidth();
+
+		int[] dataColumnsOfColumns = new int[columns];
+		for (int column = 0; column < columns; column++) {
+			dataColumnsOfColumns[column] = Math.min(Interpolator.getNearest(column, interpolationFactorX), dataColumns - 1);
+		}
+
+		RowStrips.forEach(forkJoinPool, upsampledData.getHeight(), (strip, fromRow, toRow) -> {
+
+			double[] dataRow = new double[dataColumns];
+			double[] upsampledRow = new double[columns];
+			int readRow = -1;
+
+			for (int row = fromRow; row < toRow; row++) {
+
+				int dataRowIndex = Math.min(Interpolator.getNearest(row, interpolationFactorY), data.getHeight() - 1);
+				if (dataRowIndex != readRow) {
+					data.readRow(dataRowIndex, 0, dataColumns, dataRow, 0);
+					for (int column = 0; column < columns; column++) {
+						upsampledRow[column] = dataRow[dataColumnsOfColumns[column]];
+					}
+					readRow = dataRowIndex;
+				}
+
+				upsampledData.writeRow(row, upsampledRow, 0);
+			}
+		});
+	}
+}
@@ -0,0 +1,157 @@
+package org.contour2dplot;
+
+import java.util.Arrays;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Sketch of the distribution of a stream of values, answering quantiles from bounded memory. Values are kept in levels of
+ * compactors, where each value of the level h stands for 2^h values of the stream. A full level is sorted and every other of its
+ * values, starting alternately from the first and the second one, is promoted to the next level, so the sketch keeps fewer
+ * than capacity values per level for about log2(count / capacity) levels. Every level adds an error of at most
+ * count / capacity to the rank of a quantile, and errors of compactions starting from different values mostly cancel out.
+ * <p>
+ * Sketches of strips of values collected in parallel are merged level by level. Compaction does not use random numbers, so the
+ * same values added and merged in the same order always give the same quantiles.
+ */
+public final class QuantileSketch {
+
+	private final int capacity;
+
+	private double[][] levels = new double[0][];
+	private int[] sizes = new int[0];
+	private boolean[] shiftedCompactions = new boolean[0];
+
+	private long count;
+
+	/**
+	 * Creates empty sketch keeping the given number of values per level, rounded down to an even number of at least 2.
+	 */
+	public QuantileSketch(int capacity) {
+		this.capacity = Math.max(2, capacity & ~1);
+	}
+
+	/**
+	 * Adds the value, which must not be NaN.
+	 */
+	public void add(double value) {
+		addToLevel(0, value);
+		count++;
+	}
+
+	/**
+	 * Adds values of the other sketch, which is not changed.
+	 */
+	public void add(QuantileSketch sketch) {
+		for (int level = 0; level < sketch.levels.length; level++) {
+			for (int i = 0; i < sketch.sizes[level]; i++) {
+				addToLevel(level, sketch.levels[level][i]);
+			}
+		}
+		count += sketch.count;
+	}
+
+	/**
+	 * Returns the number of added values.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns, for every fraction from 0 to 1 of the ascending array, the lowest kept value reached by at least that fraction of
+	 * the added values, or NaN if there are no values.
+	 */
+	public double[] getQuantiles(double[] fractions) {
+
+		// Levels are sorted separately and merged, adding the weight of every merged value to its rank.
+		double[][] sortedLevels = new double[levels.length][];
+		for (int level = 0; level < levels.length; level++) {
+			sortedLevels[level] = Arrays.copyOf(levels[level], sizes[level]);
+			Arrays.sort(sortedLevels[level]);
+		}
+		int[] positions = new int[levels.length];
+
+		double[] quantiles = new double[fractions.length];
+		double value = Double.NaN;
+		long rank = 0;
+
+		for (int f = 0; f < fractions.length; f++) {
+
+			double targetRank = fractions[f] * count;
+
+			while (rank < targetRank || Double.isNaN(value)) {
+
+				int lowestLevel = -1;
+				for (int level = 0; level < sortedLevels.length; level++) {
+					if (positions[level] < sortedLevels[level].length && (lowestLevel < 0
+							|| sortedLevels[level][positions[level]] < sortedLevels[lowestLevel][positions[lowestLevel]])) {
+						lowestLevel = level;
+					}
+				}
+				if (lowestLevel < 0) {
+					break;
+				}
+
+				value = sortedLevels[lowestLevel][positions[lowestLevel]++];
+				rank += 1L << lowestLevel;
+			}
+
+			quantiles[f] = value;
+		}
+
+		return quantiles;
+	}
+
+	private void addToLevel(int level, double value) {
+
+		if (level == levels.length) {
+			levels = Arrays.copyOf(levels, level + 1);
+			levels[level] = new double[capacity];
+			sizes = Arrays.copyOf(sizes, level + 1);
+			shiftedCompactions = Arrays.copyOf(shiftedCompactions, level + 1);
+		}
+
+		levels[level][sizes[level]++] = value;
+
+		if (sizes[level] == capacity) {
+			compact(level);
+		}
+	}
+
+	/**
+	 * Promotes every other sorted value of the full level to the next level, where it stands for both values. Starting from the
+	 * first or the second value in turns keeps the ranks of the promoted values from drifting in one direction.
+	 */
+	private void compact(int level) {
+
+		double[] values = levels[level];
+		Arrays.sort(values);
+
+		int offset = shiftedCompactions[level] ? 1 : 0;
+		shiftedCompactions[level] = !shiftedCompactions[level];
+		sizes[level] = 0;
+
+		// Promoted values are copied first, since the next level may grow the arrays of the levels.
+		double[] promotedValues = new double[capacity / 2];
+		for (int i = 0; i < promotedValues.length; i++) {
+			promotedValues[i] = values[2 * i + offset];
+		}
+		for (double promotedValue : promotedValues) {
+			addToLevel(level + 1, promotedValue);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package org.contour2dplot;
+
+import java.util.Arrays;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Marks cells of the data, given by their top-left value, which are interpolated at the full interpolation factors. Samples
+ * lying only on unmarked cells do not need interpolation, because such cells are known to lie inside the same iso bands
+ * everywhere, and are filled with the value of the nearest data sample instead.
+ * <p>
+ * Every cell is set by a single thread, so strips of rows can be marked at the same time.
+ */
+public final class RefinementMask {
+
+	private final int columns;
+	private final int rows;
+	private final boolean[] refinedCells;
+
+	/**
+	 * Creates mask of the given number of cell columns and rows, with no cell refined.
+	 */
+	public RefinementMask(int columns, int rows) {
+		this.columns = columns;
+		this.rows = rows;
+		this.refinedCells = new boolean[columns * rows];
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public boolean isRefined(int row, int column) {
+		return refinedCells[row * columns + column];
+	}
+
+	public void setRefined(int row, int column, boolean refined) {
+		refinedCells[row * columns + column] = refined;
+	}
+
+	public int getNumberOfRefinedCells() {
+		int numberOfRefinedCells = 0;
+		for (boolean refined : refinedCells) {
+			if (refined) {
+				numberOfRefinedCells++;
+			}
+		}
+		return numberOfRefinedCells;
+	}
+
+	/**
+	 * Tells whether the sample of the upsampled grid touches a refined cell, so it has to be interpolated.
+	 */
+	public boolean isRefinedSample(int row, int column, int interpolationFactorX, int interpolationFactorY) {
+		int lastRow = getLastCell(row, interpolationFactorY, rows);
+		int lastColumn = getLastCell(column, interpolationFactorX, columns);
+		for (int cellRow = getFirstCell(row, interpolationFactorY, rows); cellRow <= lastRow; cellRow++) {
+			for (int cellColumn = getFirstCell(column, interpolationFactorX, columns); cellColumn <= lastColumn; cellColumn++) {
+				if (isRefined(cellRow, cellColumn)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Marks samples of the row of the upsampled grid which touch a refined cell, and returns whether there is any.
+	 */
+	public boolean getRefinedSamples(int row, int interpolationFactorX, int interpolationFactorY, boolean[] refinedSamples) {
+
+		int firstRow = getFirstCell(row, interpolationFactorY, rows);
+		int lastRow = getLastCell(row, interpolationFactorY, rows);
+
+		boolean anyRefined = false;
+
+		Arrays.fill(refinedSamples, false);
+
+		for (int cellColumn = 0; cellColumn < columns; cellColumn++) {
+
+			boolean refined = false;
+			for (int cellRow = firstRow; cellRow <= lastRow; cellRow++) {
+				refined |= isRefined(cellRow, cellColumn);
+			}
+
+			// Samples on both vertical edges of the cell are shared with its neighbours and refined with either of them.
+			if (refined) {
+				int fromColumn = cellColumn * interpolationFactorX;
+				int toColumn = Math.min(refinedSamples.length, fromColumn + interpolationFactorX + 1);
+				Arrays.fill(refinedSamples, fromColumn, toColumn, true);
+				anyRefined = true;
+			}
+		}
+
+		return anyRefined;
+	}
+
+	private static int getFirstCell(int sample, int interpolationFactor, int cells) {
+		return Math.min(cells - 1, Math.max(0, (sample - 1) / interpolationFactor));
+	}
+
+	private static int getLastCell(int sample, int interpolationFactor, int cells) {
+		return Math.min(cells - 1, sample / interpolationFactor);
+	}
+}
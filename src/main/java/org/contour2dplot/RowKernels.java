@@ -0,0 +1,120 @@
+package org.contour2dplot;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Loops over whole rows of a grid, shared by the interpolation and classification stages. When the jdk.incubator.vector module is
+ * enabled, for example with --add-modules jdk.incubator.vector, rows are processed in the lanes of {@link VectorRowKernels}.
+ * Otherwise the scalar loops below are used, which give exactly the same results.
+ * <p>
+ * Iso band states of a value are given by two band indices: the first band whose end is greater than or equal to the value,
+ * or the number of bands if there is none, and the last band whose start is lower than or equal to the value, or -1 if there is
+ * none. The value lies below every band after the last one, inside bands from the first to the last one, and above every band
+ * before the first one, so its state for any band is found by comparing integers.
+ */
+public final class RowKernels {
+
+	public static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+	private RowKernels() {
+	}
+
+	/**
+	 * Computes w0 * p0 + w1 * p1 + w2 * p2 + w3 * p3 for length subsequent values of four rows of the array, starting at the
+	 * given offsets, and stores the sums from the offset of the result.
+	 */
+	public static void weightedSum(double[] values, int offset0, double w0, int offset1, double w1, int offset2, double w2,
+			int offset3, double w3, double[] result, int resultOffset, int length) {
+
+		int i = 0;
+		if (VECTOR_API_AVAILABLE) {
+			i = VectorRowKernels.weightedSum(values, offset0, w0, offset1, w1, offset2, w2, offset3, w3, result, resultOffset,
+					length);
+		}
+
+		for (; i < length; i++) {
+			result[resultOffset + i] = w0 * values[offset0 + i] + w1 * values[offset1 + i] + w2 * values[offset2 + i]
+					+ w3 * values[offset3 + i];
+		}
+	}
+
+	/**
+	 * Computes average of the corners of every cell between the rows of the array starting at the given offsets and stores it
+	 * from the offset of the result.
+	 */
+	public static void centerValues(double[] values, int topOffset, int bottomOffset, int columns, double[] result, int offset) {
+
+		int column = 0;
+		if (VECTOR_API_AVAILABLE) {
+			column = VectorRowKernels.centerValues(values, topOffset, bottomOffset, columns, result, offset);
+		}
+
+		for (; column < columns; column++) {
+			int top = topOffset + column;
+			int bottom = bottomOffset + column;
+			result[offset + column] = (values[bottom] + values[bottom + 1] + values[top + 1] + values[top]) / 4;
+		}
+	}
+
+	/**
+	 * Finds the range of bands crossed by every cell between two rows, given the band indices of the values of both rows, and
+	 * the ternary index of each cell for the first band of its range. The range is clamped to the existing bands.
+	 */
+	public static void firstCases(int[] topFirstBands, int[] topLastBands, int[] bottomFirstBands, int[] bottomLastBands,
+			int columns, int lastBand, int[] firstBandsOfCells, int[] lastBandsOfCells, int[] ternaryIndices) {
+
+		int column = 0;
+		if (VECTOR_API_AVAILABLE) {
+			column = VectorRowKernels.firstCases(topFirstBands, topLastBands, bottomFirstBands, bottomLastBands, columns,
+					lastBand, firstBandsOfCells, lastBandsOfCells, ternaryIndices);
+		}
+
+		for (; column < columns; column++) {
+
+			int firstBand = Math.min(Math.min(bottomFirstBands[column], bottomFirstBands[column + 1]),
+					Math.min(topFirstBands[column + 1], topFirstBands[column]));
+			firstBand = Math.min(lastBand, firstBand);
+
+			int lastBandOfCell = Math.max(Math.max(bottomLastBands[column], bottomLastBands[column + 1]),
+					Math.max(topLastBands[column + 1], topLastBands[column]));
+			lastBandOfCell = Math.max(0, lastBandOfCell);
+
+			firstBandsOfCells[column] = firstBand;
+			lastBandsOfCells[column] = lastBandOfCell;
+			ternaryIndices[column] = getTernaryIndex(topFirstBands, topLastBands, bottomFirstBands, bottomLastBands, column,
+					firstBand);
+		}
+	}
+
+	/**
+	 * Returns ternary index of the cell with the given column for the band, equal to the states of its bottom left, bottom right,
+	 * top right and top left corners weighted by 1, 3, 9 and 27.
+	 */
+	public static int getTernaryIndex(int[] topFirstBands, int[] topLastBands, int[] bottomFirstBands, int[] bottomLastBands,
+			int column, int band) {
+		return getState(bottomFirstBands[column], bottomLastBands[column], band)
+				+ 3 * getState(bottomFirstBands[column + 1], bottomLastBands[column + 1], band)
+				+ 9 * getState(topFirstBands[column + 1], topLastBands[column + 1], band)
+				+ 27 * getState(topFirstBands[column], topLastBands[column], band);
+	}
+
+	/**
+	 * Returns 0 if the value lies below the band, 1 if it lies inside and 2 if it lies above, without branching.
+	 */
+	private static int getState(int firstBand, int lastBand, int band) {
+		return 1 - ((lastBand - band) >>> 31) + ((band - firstBand) >>> 31);
+	}
+}
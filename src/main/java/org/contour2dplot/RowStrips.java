@@ -0,0 +1,73 @@
+package org.contour2dplot;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Splits rows of a grid into strips processed on a fork join pool. Strip boundaries only depend on the number of rows and the
+ * parallelism of the pool, so results collected per strip can be merged in the order of the strips, giving the same output as
+ * the serial processing of all rows, which is done when there is no pool.
+ */
+public final class RowStrips {
+
+	private static final int STRIPS_PER_THREAD = 4;
+
+	public interface RowStripTask {
+
+		void run(int strip, int fromRow, int toRow);
+	}
+
+	private RowStrips() {
+	}
+
+	public static int getNumberOfStrips(ForkJoinPool forkJoinPool, int rows) {
+		if (forkJoinPool == null) {
+			return 1;
+		}
+		return Math.max(1, Math.min(rows, forkJoinPool.getParallelism() * STRIPS_PER_THREAD));
+	}
+
+	public static int getFromRow(int strip, int numberOfStrips, int rows) {
+		return (int) ((long) strip * rows / numberOfStrips);
+	}
+
+	/**
+	 * Runs the task for every strip of rows and waits until all of them are done.
+	 */
+	public static void forEach(ForkJoinPool forkJoinPool, int rows, RowStripTask task) {
+
+		int numberOfStrips = getNumberOfStrips(forkJoinPool, rows);
+
+		if (numberOfStrips == 1) {
+			task.run(0, 0, rows);
+			return;
+		}
+
+		forkJoinPool.invoke(ForkJoinTask.adapt(() -> {
+			ArrayList<ForkJoinTask<?>> stripTasks = new ArrayList<>(numberOfStrips);
+			for (int i = 0; i < numberOfStrips; i++) {
+				int strip = i;
+				int fromRow = getFromRow(strip, numberOfStrips, rows);
+				int toRow = getFromRow(strip + 1, numberOfStrips, rows);
+				stripTasks.add(ForkJoinTask.adapt(() -> task.run(strip, fromRow, toRow)));
+			}
+			ForkJoinTask.invokeAll(stripTasks);
+		}));
+	}
+}
@@ -0,0 +1,101 @@
+package org.contour2dplot;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * Copyright 2016 Piotr Dzwiniel
+ *
+ * This file is part of org.contour2dplot package.
+ *
+ * org.contour2dplot package is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * org.contour2dplot package is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with org.contour2dplot package; if not, write to the
+ * Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+
+/**
+ * Vector API versions of the loops of {@link RowKernels}, processing as many values at once as the preferred vector species of
+ * the platform holds. Every method processes whole vectors only and returns the index from which the scalar loop has to
+ * continue. Operations are done lane by lane in the same order as the scalar loops, so results are the same.
+ * <p>
+ * This is the only class referring to jdk.incubator.vector and it is loaded only when the module is enabled.
+ */
+final class VectorRowKernels {
+
+	private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+
+	private VectorRowKernels() {
+	}
+
+	static int weightedSum(double[] values, int offset0, double w0, int offset1, double w1, int offset2, double w2, int offset3,
+			double w3, double[] result, int resultOffset, int length) {
+
+		int i = 0;
+		for (int bound = DOUBLE_SPECIES.loopBound(length); i < bound; i += DOUBLE_SPECIES.length()) {
+			DoubleVector.fromArray(DOUBLE_SPECIES, values, offset0 + i).mul(w0)
+					.add(DoubleVector.fromArray(DOUBLE_SPECIES, values, offset1 + i).mul(w1))
+					.add(DoubleVector.fromArray(DOUBLE_SPECIES, values, offset2 + i).mul(w2))
+					.add(DoubleVector.fromArray(DOUBLE_SPECIES, values, offset3 + i).mul(w3))
+					.intoArray(result, resultOffset + i);
+		}
+		return i;
+	}
+
+	static int centerValues(double[] values, int topOffset, int bottomOffset, int columns, double[] result, int offset) {
+
+		int column = 0;
+		for (int bound = DOUBLE_SPECIES.loopBound(columns); column < bound; column += DOUBLE_SPECIES.length()) {
+			DoubleVector.fromArray(DOUBLE_SPECIES, values, bottomOffset + column)
+					.add(DoubleVector.fromArray(DOUBLE_SPECIES, values, bottomOffset + column + 1))
+					.add(DoubleVector.fromArray(DOUBLE_SPECIES, values, topOffset + column + 1))
+					.add(DoubleVector.fromArray(DOUBLE_SPECIES, values, topOffset + column))
+					.div(4)
+					.intoArray(result, offset + column);
+		}
+		return column;
+	}
+
+	static int firstCases(int[] topFirstBands, int[] topLastBands, int[] bottomFirstBands, int[] bottomLastBands, int columns,
+			int lastBand, int[] firstBandsOfCells, int[] lastBandsOfCells, int[] ternaryIndices) {
+
+		int column = 0;
+		for (int bound = INT_SPECIES.loopBound(columns); column < bound; column += INT_SPECIES.length()) {
+
+			IntVector bottomLeftFirst = IntVector.fromArray(INT_SPECIES, bottomFirstBands, column);
+			IntVector bottomRightFirst = IntVector.fromArray(INT_SPECIES, bottomFirstBands, column + 1);
+			IntVector topRightFirst = IntVector.fromArray(INT_SPECIES, topFirstBands, column + 1);
+			IntVector topLeftFirst = IntVector.fromArray(INT_SPECIES, topFirstBands, column);
+
+			IntVector bottomLeftLast = IntVector.fromArray(INT_SPECIES, bottomLastBands, column);
+			IntVector bottomRightLast = IntVector.fromArray(INT_SPECIES, bottomLastBands, column + 1);
+			IntVector topRightLast = IntVector.fromArray(INT_SPECIES, topLastBands, column + 1);
+			IntVector topLeftLast = IntVector.fromArray(INT_SPECIES, topLastBands, column);
+
+			IntVector firstBand = bottomLeftFirst.min(bottomRightFirst).min(topRightFirst.min(topLeftFirst)).min(lastBand);
+			IntVector lastBandOfCell = bottomLeftLast.max(bottomRightLast).max(topRightLast.max(topLeftLast)).max(0);
+
+			IntVector ternaryIndex = getState(bottomLeftFirst, bottomLeftLast, firstBand)
+					.add(getState(bottomRightFirst, bottomRightLast, firstBand).mul(3))
+					.add(getState(topRightFirst, topRightLast, firstBand).mul(9))
+					.add(getState(topLeftFirst, topLeftLast, firstBand).mul(27));
+
+			firstBand.intoArray(firstBandsOfCells, column);
+			lastBandOfCell.intoArray(lastBandsOfCells, column);
+			ternaryIndex.intoArray(ternaryIndices, column);
+		}
+		return column;
+	}
+
+	private static IntVector getState(IntVector firstBand, IntVector lastBand, IntVector band) {
+		return lastBand.sub(band).lanewise(VectorOperators.LSHR, 31).neg().add(1)
+				.add(band.sub(firstBand).lanewise(VectorOperators.LSHR, 31));
+	}
+}